@@ -0,0 +1,336 @@
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A Map whose String keys match ignoring case, with the folding rules of the caseSensitive=false
+ * methods of SimpleString. Keys are hashed and compared character by character, so no lowercased
+ * copy is made, and the folded hash of every key is kept.
+ * <p>
+ * Entries are stored with open addressing in three parallel arrays, 12 bytes per slot with compressed
+ * references and no object per entry, and the table is at most three quarters full until it reaches
+ * 2^30 slots, its largest size. A key keeps the case it was first put with.
+ * get, containsKey and remove accept any CharSequence, such as a StringView. Keys can't be null.
+ * Instances are not thread safe.
+ *
+ * @param <V> the type of the values
+ */
+
+public class CaseInsensitiveStringMap<V> extends AbstractMap<String, V> {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private String[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int size;
+    private int modCount;
+
+    private Set<Map.Entry<String, V>> entrySet;
+
+    /**
+     * Create an empty map.
+     */
+    public CaseInsensitiveStringMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Create an empty map that holds expectedSize keys without growing.
+     *
+     * @param expectedSize The number of keys, at most three quarters of 2^30.
+     */
+    public CaseInsensitiveStringMap(final int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Create a map holding the entries of map. Keys that are equal ignoring case keep the last value.
+     *
+     * @param map The entries.
+     */
+    public CaseInsensitiveStringMap(final Map<String, ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof CharSequence && slotOf((CharSequence) key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        int slot = key instanceof CharSequence ? slotOf((CharSequence) key) : -1;
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final String key, final V value) {
+        if(key == null) {
+            throw new IllegalArgumentException("key can't be null");
+        }
+        int hash = hash(key);
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        while(keys[slot] != null) {
+            if(hashes[slot] == hash && matches(keys[slot], key)) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if(size == mask) {
+            // the table can't grow, and a lookup needs an empty slot to stop at
+            throw new IllegalStateException("map can't hold more than " + mask + " keys");
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        modCount++;
+        if(++size > keys.length / 4 * 3 && keys.length < MAX_CAPACITY) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(final Object key) {
+        int slot = key instanceof CharSequence ? slotOf((CharSequence) key) : -1;
+        if(slot < 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        removeSlot(slot);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns the key as it was first put, for a key that is equal ignoring case.
+     *
+     * @param key The key in any case.
+     * @return The stored key, null if there is none.
+     */
+    public String storedKey(final CharSequence key) {
+        int slot = key == null ? -1 : slotOf(key);
+        return slot < 0 ? null : keys[slot];
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        if(entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, V>>() {
+                @Override
+                public Iterator<Map.Entry<String, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    CaseInsensitiveStringMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Hash of value ignoring case, the same for every value that is equal ignoring case.
+     *
+     * @param value The input.
+     * @return The hash.
+     */
+    static int hash(final CharSequence value) {
+        int hash = 0;
+        for(int i = 0, length = value.length(); i < length; i++) {
+            hash = 31 * hash + SimpleString.foldCase(value.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(final String key, final CharSequence value) {
+        return key.length() == value.length() && SimpleString.regionMatchesIgnoreCase(key, 0, value, 0, key.length());
+    }
+
+    private int slotOf(final CharSequence key) {
+        int hash = hash(key);
+        int mask = keys.length - 1;
+        for(int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if(hashes[slot] == hash && matches(keys[slot], key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Empties slot and moves the following keys of its cluster back, so that no key is ever
+     * separated from its home slot by an empty one.
+     */
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        for(int next = (slot + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            // a key can move back to slot unless its home slot lies after slot
+            if(((next - hashes[next]) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                hashes[slot] = hashes[next];
+                slot = next;
+            }
+        }
+        keys[slot] = null;
+        values[slot] = null;
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Whether removing slot would move a key from the start of the table to its end.
+     */
+    private boolean clusterWraps(final int slot) {
+        for(int next = slot + 1; next < keys.length; next++) {
+            if(keys[next] == null) {
+                return false;
+            }
+        }
+        return keys[0] != null;
+    }
+
+    private void resize(final int capacity) {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while(keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new String[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+    }
+
+    private static int capacityFor(final int expectedSize) {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize can't be negative");
+        }
+        if(expectedSize > MAX_CAPACITY / 4 * 3) {
+            throw new IllegalArgumentException("expectedSize can't be more than " + MAX_CAPACITY / 4 * 3);
+        }
+        int capacity = MIN_CAPACITY;
+        while(capacity / 4 * 3 < expectedSize) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    /**
+     * Walks the slots from the last one down. Removing a key only moves keys that were already
+     * returned, except when the cluster wraps around the end of the table, in which case the rest
+     * of the walk is made on a copy of the slots.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+
+        private String[] walkKeys = keys;
+        private Object[] walkValues = values;
+        private int slot = keys.length;
+        private int current = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            while(slot > 0 && walkKeys[slot - 1] == null) {
+                slot--;
+            }
+            return slot > 0;
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = --slot;
+            return new Entry(walkKeys[current], walkValues[current]);
+        }
+
+        @Override
+        public void remove() {
+            if(current < 0) {
+                throw new IllegalStateException();
+            }
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if(walkKeys == keys && clusterWraps(current)) {
+                walkKeys = keys.clone();
+                walkValues = values.clone();
+            }
+            if(walkKeys == keys) {
+                removeSlot(current);
+            } else {
+                CaseInsensitiveStringMap.this.remove(walkKeys[current]);
+            }
+            current = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private final class Entry extends AbstractMap.SimpleEntry<String, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        @SuppressWarnings("unchecked")
+        Entry(final String key, final Object value) {
+            super(key, (V) value);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A Set of Strings that match ignoring case, with the folding rules of the caseSensitive=false
+ * methods of SimpleString. It is backed by a CaseInsensitiveStringMap, so no lowercased copy is made.
+ * contains and remove accept any CharSequence, such as a StringView. Elements can't be null.
+ * Instances are not thread safe.
+ */
+
+public class CaseInsensitiveStringSet extends AbstractSet<String> {
+
+    private final CaseInsensitiveStringMap<Boolean> map;
+
+    /**
+     * Create an empty set.
+     */
+    public CaseInsensitiveStringSet() {
+        map = new CaseInsensitiveStringMap<Boolean>();
+    }
+
+    /**
+     * Create an empty set that holds expectedSize elements without growing.
+     *
+     * @param expectedSize The number of elements.
+     */
+    public CaseInsensitiveStringSet(final int expectedSize) {
+        map = new CaseInsensitiveStringMap<Boolean>(expectedSize);
+    }
+
+    /**
+     * Create a set holding values. Of values that are equal ignoring case, the first one is kept.
+     *
+     * @param values The elements.
+     */
+    public CaseInsensitiveStringSet(final Collection<String> values) {
+        this(values.size());
+        addAll(values);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean contains(final Object value) {
+        return map.containsKey(value);
+    }
+
+    @Override
+    public boolean add(final String value) {
+        return map.put(value, Boolean.TRUE) == null;
+    }
+
+    @Override
+    public boolean remove(final Object value) {
+        return map.remove(value) != null;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return map.keySet().iterator();
+    }
+
+    /**
+     * Returns the element as it was first added, for a value that is equal ignoring case.
+     *
+     * @param value The value in any case.
+     * @return The stored element, null if there is none.
+     */
+    public String storedValue(final CharSequence value) {
+        return map.storedKey(value);
+    }
+}
@@ -0,0 +1,331 @@
+import java.util.Arrays;
+
+/**
+ * A text indexed once for many substring queries. The index is the suffix array of the text: the
+ * start of every suffix, in sorted order. The suffixes starting with a needle form one range of it,
+ * found by binary search, so contains and countSubstr with overlapping take time proportional to
+ * the needle length times the logarithm of the text length, and indexOf, lastIndexOf and
+ * countSubstr without overlapping add time proportional to the number of occurrences.
+ * <p>
+ * The index takes 4 bytes per character on top of the text, and building it takes up to 12 bytes
+ * per character and time proportional to n log n; buildNanos and indexBytes report both, so they
+ * can be weighed against a scan per query. Instances are immutable and can be shared between threads.
+ */
+
+public final class IndexedString {
+
+    private final String text;
+    private final boolean caseSensitive;
+    private final int[] suffixes;
+    private final long buildNanos;
+
+    private IndexedString(final String text, final boolean caseSensitive) {
+        long start = System.nanoTime();
+        this.text = text;
+        this.caseSensitive = caseSensitive;
+        this.suffixes = sortSuffixes();
+        this.buildNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Index text for case sensitive queries.
+     *
+     * @param text The text.
+     * @return The index.
+     */
+    public static IndexedString build(final String text) {
+        return build(text, true);
+    }
+
+    /**
+     * Index text.
+     *
+     * @param text          The text.
+     * @param caseSensitive whether queries should be case sensitive.
+     * @return The index.
+     */
+    public static IndexedString build(final String text, final boolean caseSensitive) {
+        if(text == null) {
+            throw new IllegalArgumentException("text can't be null");
+        }
+        return new IndexedString(text, caseSensitive);
+    }
+
+    /**
+     * Verifies that the needle is contained in the text.
+     *
+     * @param needle needle to find
+     * @return true if found else false.
+     */
+    public boolean contains(final CharSequence needle) {
+        return checkNeedle(needle).length() == 0 || lowerBound(needle) < upperBound(needle);
+    }
+
+    /**
+     * Returns the index of the first occurrence of needle, -1 if there is none.
+     *
+     * @param needle The search sequence.
+     * @return Position of the first occurrence.
+     */
+    public int indexOf(final CharSequence needle) {
+        return indexOf(needle, 0);
+    }
+
+    /**
+     * Returns the index of the first occurrence of needle at or after from, -1 if there is none.
+     *
+     * @param needle The search sequence.
+     * @param from   The index to start searching from.
+     * @return Position of the first occurrence.
+     */
+    public int indexOf(final CharSequence needle, final int from) {
+        int start = Math.max(from, 0);
+        if(checkNeedle(needle).length() == 0) {
+            return Math.min(start, text.length());
+        }
+        int first = -1;
+        for(int i = lowerBound(needle), end = upperBound(needle); i < end; i++) {
+            if(suffixes[i] >= start && (first == -1 || suffixes[i] < first)) {
+                first = suffixes[i];
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Returns the index of the last occurrence of needle, -1 if there is none.
+     *
+     * @param needle The search sequence.
+     * @return Position of the last occurrence.
+     */
+    public int lastIndexOf(final CharSequence needle) {
+        return lastIndexOf(needle, text.length());
+    }
+
+    /**
+     * Returns the index of the last occurrence of needle at or before from, -1 if there is none.
+     *
+     * @param needle The search sequence.
+     * @param from   The index to start searching backwards from.
+     * @return Position of the last occurrence.
+     */
+    public int lastIndexOf(final CharSequence needle, final int from) {
+        int start = Math.min(from, text.length() - checkNeedle(needle).length());
+        if(start < 0) {
+            return -1;
+        }
+        if(needle.length() == 0) {
+            return start;
+        }
+        int last = -1;
+        for(int i = lowerBound(needle), end = upperBound(needle); i < end; i++) {
+            if(suffixes[i] <= start && suffixes[i] > last) {
+                last = suffixes[i];
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Count the number of times needle appears in the text.
+     *
+     * @param needle           The search sequence.
+     * @param allowOverlapping whether occurrences may overlap.
+     * @return count of times needle exists, 0 if it is empty.
+     */
+    public long countSubstr(final CharSequence needle, final boolean allowOverlapping) {
+        int length = checkNeedle(needle).length();
+        if(length == 0) {
+            return 0L;
+        }
+        int begin = lowerBound(needle);
+        int end = upperBound(needle);
+        if(allowOverlapping || end - begin < 2) {
+            return end - begin;
+        }
+        int[] positions = Arrays.copyOfRange(suffixes, begin, end);
+        Arrays.sort(positions);
+        long count = 0L;
+        int next = 0;
+        for(int position : positions) {
+            if(position >= next) {
+                count++;
+                next = position + length;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The indexed text.
+     *
+     * @return The text.
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Whether queries are case sensitive.
+     *
+     * @return true or false
+     */
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    /**
+     * Time it took to build the index.
+     *
+     * @return The build time in nanoseconds.
+     */
+    public long buildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Memory held by the index on top of the text.
+     *
+     * @return The size in bytes.
+     */
+    public long indexBytes() {
+        return 4L * suffixes.length;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedString{length=" + text.length() + ", caseSensitive=" + caseSensitive
+                + ", buildNanos=" + buildNanos + ", indexBytes=" + indexBytes() + "}";
+    }
+
+    /**
+     * Sorts the suffixes by prefix doubling: once they are sorted by their first k characters, sorting
+     * by the ranks of the first k and the next k characters sorts them by their first 2k characters.
+     * Each round is two counting sorts.
+     */
+    private int[] sortSuffixes() {
+        int n = text.length();
+        int[] sorted = new int[n];
+        int[] rank = new int[n];
+        int[] work = new int[n];
+        int[] counts = new int[Math.max(n, Character.MAX_VALUE + 1) + 1];
+        for(int i = 0; i < n; i++) {
+            counts[fold(text.charAt(i)) + 1]++;
+        }
+        for(int c = 1; c < counts.length; c++) {
+            counts[c] += counts[c - 1];
+        }
+        for(int i = 0; i < n; i++) {
+            sorted[counts[fold(text.charAt(i))]++] = i;
+        }
+        int classes = 0;
+        for(int j = 0; j < n; j++) {
+            if(j > 0 && fold(text.charAt(sorted[j])) != fold(text.charAt(sorted[j - 1]))) {
+                classes++;
+            }
+            rank[sorted[j]] = classes;
+        }
+        classes++;
+        for(int k = 1; classes < n; k <<= 1) {
+            // by the second k characters: suffixes shorter than k + 1 first, then in sorted order
+            int p = 0;
+            for(int i = n - k; i < n; i++) {
+                work[p++] = i;
+            }
+            for(int j = 0; j < n; j++) {
+                if(sorted[j] >= k) {
+                    work[p++] = sorted[j] - k;
+                }
+            }
+            // stable by the first k characters
+            Arrays.fill(counts, 0, classes + 1, 0);
+            for(int i = 0; i < n; i++) {
+                counts[rank[i] + 1]++;
+            }
+            for(int c = 1; c <= classes; c++) {
+                counts[c] += counts[c - 1];
+            }
+            for(int j = 0; j < n; j++) {
+                sorted[counts[rank[work[j]]]++] = work[j];
+            }
+            classes = 0;
+            work[sorted[0]] = 0;
+            for(int j = 1; j < n; j++) {
+                int current = sorted[j];
+                int previous = sorted[j - 1];
+                if(rank[current] != rank[previous] || second(rank, current, k) != second(rank, previous, k)) {
+                    classes++;
+                }
+                work[current] = classes;
+            }
+            classes++;
+            int[] swap = rank;
+            rank = work;
+            work = swap;
+        }
+        return sorted;
+    }
+
+    private static int second(final int[] rank, final int i, final int k) {
+        return i + k < rank.length ? rank[i + k] : -1;
+    }
+
+    /**
+     * First suffix that is not smaller than needle.
+     */
+    private int lowerBound(final CharSequence needle) {
+        int low = 0;
+        int high = suffixes.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(compare(suffixes[middle], needle) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First suffix that neither starts with needle nor is smaller than it.
+     */
+    private int upperBound(final CharSequence needle) {
+        int low = 0;
+        int high = suffixes.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(compare(suffixes[middle], needle) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the suffix at start to needle, 0 if the suffix starts with needle.
+     */
+    private int compare(final int start, final CharSequence needle) {
+        int length = Math.min(text.length() - start, needle.length());
+        for(int i = 0; i < length; i++) {
+            int difference = fold(text.charAt(start + i)) - fold(needle.charAt(i));
+            if(difference != 0) {
+                return difference;
+            }
+        }
+        return length < needle.length() ? -1 : 0;
+    }
+
+    private char fold(final char c) {
+        return caseSensitive ? c : SimpleString.foldCase(c);
+    }
+
+    private static CharSequence checkNeedle(final CharSequence needle) {
+        if(needle == null) {
+            throw new IllegalArgumentException("needle can't be null");
+        }
+        return needle;
+    }
+}
@@ -0,0 +1,352 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A set of needles compiled once into an Aho-Corasick automaton, so that any number of needles
+ * can be searched for in a single pass over the value.
+ * Instances are immutable and can be shared between threads.
+ */
+
+public final class NeedleSet {
+
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final String[] needles;
+    private final boolean caseSensitive;
+    private final int maxLength;
+    // index of an empty needle, -1 if there is none
+    private final int emptyNeedle;
+
+    // transitions on the ASCII characters, dense: one column per ASCII character in a needle, column 0 for the rest
+    private final int[] asciiColumns = new int[128];
+    private final int columns;
+    private final int[] delta;
+
+    // goto edges on the other characters, sparse: the edges of state s are at edgeStart[s] until edgeStart[s + 1],
+    // sorted by character, and a missing edge falls back along the failure links
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+
+    private final int[][] outputs;
+
+    private NeedleSet(final String[] needles, final boolean caseSensitive) {
+        this.needles = needles.clone();
+        this.caseSensitive = caseSensitive;
+
+        TreeSet<Character> alphabet = new TreeSet<Character>();
+        int longest = 0;
+        int empty = -1;
+        int capacity = 1;
+        for(int n = 0; n < this.needles.length; n++) {
+            String needle = this.needles[n];
+            if(needle == null) {
+                throw new IllegalArgumentException("needles can't contain null");
+            }
+            for(int i = 0; i < needle.length(); i++) {
+                char c = fold(needle.charAt(i));
+                if(c < 128) {
+                    alphabet.add(c);
+                }
+            }
+            longest = Math.max(longest, needle.length());
+            capacity += needle.length();
+            if(needle.isEmpty() && empty == -1) {
+                empty = n;
+            }
+        }
+        this.maxLength = longest;
+        this.emptyNeedle = empty;
+
+        int column = 1;
+        for(char c : alphabet) {
+            asciiColumns[c] = column++;
+        }
+        this.columns = column;
+
+        // goto function of the trie, -1 where there is no edge; other characters are keyed by state << 16 | c
+        int[] table = new int[capacity * columns];
+        Arrays.fill(table, -1);
+        Map<Long, Integer> others = new HashMap<Long, Integer>();
+        List<List<Integer>> found = new ArrayList<List<Integer>>();
+        found.add(new ArrayList<Integer>());
+        int states = 1;
+        for(int n = 0; n < this.needles.length; n++) {
+            String needle = this.needles[n];
+            int state = 0;
+            for(int i = 0; i < needle.length(); i++) {
+                char c = fold(needle.charAt(i));
+                if(c < 128) {
+                    int slot = state * columns + asciiColumns[c];
+                    if(table[slot] == -1) {
+                        table[slot] = states++;
+                        found.add(new ArrayList<Integer>());
+                    }
+                    state = table[slot];
+                } else {
+                    Long key = (long) state << 16 | c;
+                    Integer child = others.get(key);
+                    if(child == null) {
+                        child = states++;
+                        others.put(key, child);
+                        found.add(new ArrayList<Integer>());
+                    }
+                    state = child;
+                }
+            }
+            if(!needle.isEmpty()) {
+                found.get(state).add(n);
+            }
+        }
+        this.edgeStart = new int[states + 1];
+        this.edgeChars = new char[others.size()];
+        this.edgeTargets = new int[others.size()];
+        Long[] keys = others.keySet().toArray(new Long[others.size()]);
+        Arrays.sort(keys);
+        for(int i = 0; i < keys.length; i++) {
+            long key = keys[i];
+            edgeChars[i] = (char) key;
+            edgeTargets[i] = others.get(key);
+            edgeStart[(int) (key >>> 16) + 1]++;
+        }
+        for(int s = 0; s < states; s++) {
+            edgeStart[s + 1] += edgeStart[s];
+        }
+
+        // breadth first over the trie: failure links, and the ASCII goto and failure links turned into one table
+        this.fail = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for(int c = 0; c < columns; c++) {
+            int child = table[c];
+            if(child == -1) {
+                table[c] = 0;
+            } else {
+                queue[tail++] = child;
+            }
+        }
+        for(int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            queue[tail++] = edgeTargets[e];
+        }
+        while(head < tail) {
+            int state = queue[head++];
+            found.get(state).addAll(found.get(fail[state]));
+            for(int c = 0; c < columns; c++) {
+                int slot = state * columns + c;
+                int child = table[slot];
+                int fallback = table[fail[state] * columns + c];
+                if(child == -1) {
+                    table[slot] = fallback;
+                } else {
+                    fail[child] = fallback;
+                    queue[tail++] = child;
+                }
+            }
+            for(int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                int child = edgeTargets[e];
+                fail[child] = other(fail[state], edgeChars[e]);
+                queue[tail++] = child;
+            }
+        }
+        this.delta = Arrays.copyOf(table, states * columns);
+        this.outputs = new int[states][];
+        for(int s = 0; s < states; s++) {
+            List<Integer> list = found.get(s);
+            if(list.isEmpty()) {
+                outputs[s] = NO_OUTPUT;
+            } else {
+                int[] output = new int[list.size()];
+                for(int i = 0; i < output.length; i++) {
+                    output[i] = list.get(i);
+                }
+                outputs[s] = output;
+            }
+        }
+    }
+
+    /**
+     * Compile needles into a case sensitive NeedleSet.
+     *
+     * @param needles needles to find
+     * @return The compiled NeedleSet.
+     */
+    public static NeedleSet compile(final String... needles) {
+        return compile(needles, true);
+    }
+
+    /**
+     * Compile needles into a NeedleSet.
+     *
+     * @param needles       needles to find
+     * @param caseSensitive true or false
+     * @return The compiled NeedleSet.
+     */
+    public static NeedleSet compile(final String[] needles, final boolean caseSensitive) {
+        if(needles == null) {
+            throw new IllegalArgumentException("needles can't be null");
+        }
+        return new NeedleSet(needles, caseSensitive);
+    }
+
+    /**
+     * Verifies that one or more of the needles are contained in value.
+     *
+     * @param value input to search
+     * @return true if any needle is found else false.
+     */
+    public boolean containsAny(final CharSequence value) {
+        checkValue(value);
+        if(emptyNeedle >= 0) {
+            return true;
+        }
+        int state = 0;
+        for(int i = 0, length = value.length(); i < length; i++) {
+            state = next(state, value.charAt(i));
+            if(outputs[state].length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifies that all needles are contained in value.
+     *
+     * @param value input to search
+     * @return true if all needles are found else false.
+     */
+    public boolean containsAll(final CharSequence value) {
+        return scan(value, true) == needles.length;
+    }
+
+    /**
+     * Returns the needles contained in value, in the order they were compiled.
+     *
+     * @param value input to search
+     * @return The needles found.
+     */
+    public String[] matches(final CharSequence value) {
+        boolean[] seen = new boolean[needles.length];
+        int count = scan(value, false, seen);
+        String[] result = new String[count];
+        for(int n = 0, i = 0; n < needles.length; n++) {
+            if(seen[n]) {
+                result[i++] = needles[n];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the needle with the leftmost occurrence in value. The longest needle wins when
+     * several needles start at the same position. An empty needle occurs at every position, so
+     * with one the result is the longest needle value starts with, or the empty needle.
+     *
+     * @param value input to search
+     * @return The needle found first, or null if none is found.
+     */
+    public String firstMatch(final CharSequence value) {
+        checkValue(value);
+        int bestStart = emptyNeedle >= 0 ? 0 : Integer.MAX_VALUE;
+        int best = emptyNeedle;
+        int state = 0;
+        for(int i = 0, length = value.length(); i < length; i++) {
+            if(i - maxLength + 1 > bestStart) {
+                break;
+            }
+            state = next(state, value.charAt(i));
+            for(int n : outputs[state]) {
+                int start = i - needles[n].length() + 1;
+                if(start < bestStart || (start == bestStart && needles[n].length() > needles[best].length())) {
+                    bestStart = start;
+                    best = n;
+                }
+            }
+        }
+        return best == -1 ? null : needles[best];
+    }
+
+    /**
+     * Returns a copy of the needles in this set.
+     *
+     * @return The needles.
+     */
+    public String[] needles() {
+        return needles.clone();
+    }
+
+    /**
+     * Whether this set was compiled for case sensitive matching.
+     *
+     * @return true or false
+     */
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    private int scan(final CharSequence value, final boolean stopWhenAllFound) {
+        return scan(value, stopWhenAllFound, new boolean[needles.length]);
+    }
+
+    private int scan(final CharSequence value, final boolean stopWhenAllFound, final boolean[] seen) {
+        checkValue(value);
+        int count = 0;
+        for(int n = 0; n < needles.length; n++) {
+            if(needles[n].isEmpty()) {
+                seen[n] = true;
+                count++;
+            }
+        }
+        int state = 0;
+        for(int i = 0, length = value.length(); i < length && !(stopWhenAllFound && count == needles.length); i++) {
+            state = next(state, value.charAt(i));
+            for(int n : outputs[state]) {
+                if(!seen[n]) {
+                    seen[n] = true;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int next(final int state, final char c) {
+        char folded = fold(c);
+        if(folded < 128) {
+            return delta[state * columns + asciiColumns[folded]];
+        }
+        return other(state, folded);
+    }
+
+    /**
+     * Transition on a folded character that isn't ASCII, following failure links until a state has an edge for it.
+     */
+    private int other(int state, final char folded) {
+        while(true) {
+            int index = Arrays.binarySearch(edgeChars, edgeStart[state], edgeStart[state + 1], folded);
+            if(index >= 0) {
+                return edgeTargets[index];
+            }
+            if(state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private char fold(final char c) {
+        return caseSensitive ? c : SimpleString.foldCase(c);
+    }
+
+    private static void checkValue(final CharSequence value) {
+        if(value == null) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+    }
+}
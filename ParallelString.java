@@ -0,0 +1,428 @@
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch versions of SimpleString methods. Large batches are split across cores on a shared
+ * ForkJoinPool, small ones run on the calling thread. Results are always in input order.
+ * <p>
+ * contains, indexOf and countSubstr on a single String split very long values into chunks instead,
+ * each searched up to needle length - 1 characters past its end so that matches across a chunk
+ * boundary are found. Their results are always those of the SimpleString methods.
+ */
+
+public abstract class ParallelString {
+
+    /**
+     * Batches smaller than this are not worth the cost of forking.
+     */
+    static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    /**
+     * Values shorter than this are searched on the calling thread.
+     */
+    static final int TEXT_THRESHOLD = 1 << 20;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+
+    /**
+     * Apply SimpleString.collapseWhitespace to every value.
+     *
+     * @param values input Strings
+     * @return collapsed Strings
+     */
+    public static String[] collapseWhitespace(final String[] values) {
+        final String[] result = new String[checkValues(values).length];
+        run(values.length, new Chunk() {
+            public void run(final int from, final int to) {
+                for(int i = from; i < to; i++) {
+                    result[i] = SimpleString.collapseWhitespace(values[i]);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Apply SimpleString.removeNonWords to every value.
+     *
+     * @param values input Strings
+     * @return Strings without non-word characters.
+     */
+    public static String[] removeNonWords(final String[] values) {
+        final String[] result = new String[checkValues(values).length];
+        run(values.length, new Chunk() {
+            public void run(final int from, final int to) {
+                for(int i = from; i < to; i++) {
+                    result[i] = SimpleString.removeNonWords(values[i]);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Apply SimpleString.replaceString to every value.
+     *
+     * @param values        input Strings
+     * @param search        The search String.
+     * @param newValue      The replacement.
+     * @param caseSensitive whether search should be case sensitive
+     * @return replaced Strings
+     */
+    public static String[] replaceString(final String[] values, final String search, final String newValue, final boolean caseSensitive) {
+        final String[] result = new String[checkValues(values).length];
+        run(values.length, new Chunk() {
+            public void run(final int from, final int to) {
+                for(int i = from; i < to; i++) {
+                    result[i] = SimpleString.replaceString(values[i], search, newValue, caseSensitive);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Run a Pipeline over every value.
+     *
+     * @param values   input Strings
+     * @param pipeline The Pipeline to run.
+     * @return transformed Strings
+     */
+    public static String[] apply(final String[] values, final Pipeline pipeline) {
+        final String[] result = new String[checkValues(values).length];
+        run(values.length, new Chunk() {
+            public void run(final int from, final int to) {
+                StringBuilder buffer = new StringBuilder();
+                for(int i = from; i < to; i++) {
+                    buffer.setLength(0);
+                    result[i] = pipeline.apply(values[i], buffer).toString();
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Verifies for every value that one or more of needles are contained in it.
+     * The needles are compiled into a NeedleSet once for the whole batch.
+     *
+     * @param values        input Strings to search
+     * @param needles       needles to find
+     * @param caseSensitive true or false
+     * @return for every value, true if any needle is found else false.
+     */
+    public static boolean[] containsAny(final List<String> values, final String[] needles, final boolean caseSensitive) {
+        return containsAny(values, NeedleSet.compile(needles, caseSensitive));
+    }
+
+    /**
+     * Verifies for every value that one or more of needles are contained in it.
+     *
+     * @param values  input Strings to search
+     * @param needles compiled needles to find
+     * @return for every value, true if any needle is found else false.
+     */
+    public static boolean[] containsAny(final List<String> values, final NeedleSet needles) {
+        final String[] array = toArray(values);
+        final boolean[] result = new boolean[array.length];
+        run(array.length, new Chunk() {
+            public void run(final int from, final int to) {
+                for(int i = from; i < to; i++) {
+                    result[i] = SimpleString.containsAny(array[i], needles);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Verifies for every value that all needles are contained in it.
+     *
+     * @param values  input Strings to search
+     * @param needles compiled needles to find
+     * @return for every value, true if all needles are found else false.
+     */
+    public static boolean[] containsAll(final List<String> values, final NeedleSet needles) {
+        final String[] array = toArray(values);
+        final boolean[] result = new boolean[array.length];
+        run(array.length, new Chunk() {
+            public void run(final int from, final int to) {
+                for(int i = from; i < to; i++) {
+                    result[i] = SimpleString.containsAll(array[i], needles);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Count the number of times subStr appears in every value. Occurrences may overlap.
+     *
+     * @param values        input Strings, counted in iteration order
+     * @param subStr        input string to search
+     * @param caseSensitive whether search should be case sensitive.
+     * @return for every value, count of times substring exists.
+     */
+    public static long[] countSubstr(final Collection<String> values, final String subStr, final boolean caseSensitive) {
+        final String[] array = toArray(values);
+        final long[] result = new long[array.length];
+        run(array.length, new Chunk() {
+            public void run(final int from, final int to) {
+                for(int i = from; i < to; i++) {
+                    result[i] = SimpleString.countSubstr(array[i], subStr, caseSensitive, true);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Count the number of times subStr appears in all values together. Occurrences may overlap.
+     *
+     * @param values        input Strings
+     * @param subStr        input string to search
+     * @param caseSensitive whether search should be case sensitive.
+     * @return total count of times substring exists.
+     */
+    public static long countSubstrTotal(final Collection<String> values, final String subStr, final boolean caseSensitive) {
+        long total = 0L;
+        for(long count : countSubstr(values, subStr, caseSensitive)) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * SimpleString.contains on a single long value, searched in parallel chunks.
+     *
+     * @param value         input to search
+     * @param needle        needle to find
+     * @param caseSensitive true or false
+     * @return true if found else false.
+     */
+    public static boolean contains(final String value, final String needle, final boolean caseSensitive) {
+        if(value == null || needle == null || needle.isEmpty() || isShort(value.length())) {
+            return SimpleString.contains(value, needle, caseSensitive);
+        }
+        final PreparedNeedle prepared = PreparedNeedle.compile(needle, caseSensitive);
+        final Chunks chunks = new Chunks(0, value.length(), needle.length());
+        final AtomicBoolean found = new AtomicBoolean();
+        chunks.run(new Chunk() {
+            public void run(final int from, final int to) {
+                for(int i = from; i < to && !found.get(); i++) {
+                    if(prepared.indexOf(value, chunks.begin(i), chunks.end(i)) > -1) {
+                        found.set(true);
+                    }
+                }
+            }
+        });
+        return found.get();
+    }
+
+    /**
+     * SimpleString.indexOf on a single long value, searched in parallel chunks.
+     *
+     * @param value         The input String.
+     * @param needle        The search String.
+     * @param offset        The offset to start searching from.
+     * @param caseSensitive whether search should be case sensitive.
+     * @return Returns position of first occurrence of needle.
+     */
+    public static int indexOf(final String value, final String needle, final int offset, final boolean caseSensitive) {
+        if(value == null || needle == null || needle.isEmpty() || isShort(value.length() - Math.max(offset, 0))) {
+            return SimpleString.indexOf(value, needle, offset, caseSensitive);
+        }
+        final int start = Math.max(offset, 0);
+        final PreparedNeedle prepared = PreparedNeedle.compile(needle, caseSensitive);
+        final Chunks chunks = new Chunks(start, value.length(), needle.length());
+        final AtomicInteger first = new AtomicInteger(Integer.MAX_VALUE);
+        chunks.run(new Chunk() {
+            public void run(final int from, final int to) {
+                for(int i = from; i < to; i++) {
+                    if(chunks.begin(i) >= first.get()) {
+                        return;
+                    }
+                    int found = prepared.indexOf(value, chunks.begin(i), chunks.end(i));
+                    if(found > -1) {
+                        int current = first.get();
+                        while(found < current && !first.compareAndSet(current, found)) {
+                            current = first.get();
+                        }
+                        return;
+                    }
+                }
+            }
+        });
+        return first.get() == Integer.MAX_VALUE ? -1 : first.get();
+    }
+
+    /**
+     * SimpleString.countSubstr on a single long value, counted in parallel chunks.
+     * Without overlapping, an occurrence that crosses into a chunk past the first occurrence counted
+     * by that chunk makes the chunk be counted again on the calling thread.
+     *
+     * @param value            input String
+     * @param subStr           input string to search
+     * @param caseSensitive    whether search should be case sensitive.
+     * @param allowOverlapping whether occurrences may overlap.
+     * @return count of times substring exists, 0 if subStr is empty.
+     */
+    public static long countSubstr(final String value, final String subStr, final boolean caseSensitive, final boolean allowOverlapping) {
+        if(value == null || subStr == null || subStr.isEmpty() || isShort(value.length())) {
+            return SimpleString.countSubstr(value, subStr, caseSensitive, allowOverlapping);
+        }
+        final PreparedNeedle prepared = PreparedNeedle.compile(subStr, caseSensitive);
+        final int step = allowOverlapping ? 1 : subStr.length();
+        final Chunks chunks = new Chunks(0, value.length(), subStr.length());
+        // per chunk: occurrences counted from its start, its first occurrence and where the search continues after it
+        final long[] counts = new long[chunks.count];
+        final int[] firsts = new int[chunks.count];
+        final int[] exits = new int[chunks.count];
+        chunks.run(new Chunk() {
+            public void run(final int from, final int to) {
+                for(int i = from; i < to; i++) {
+                    long[] result = countChunk(prepared, chunks, value, i, chunks.begin(i), step);
+                    counts[i] = result[0];
+                    firsts[i] = (int) result[1];
+                    exits[i] = (int) result[2];
+                }
+            }
+        });
+        long total = 0L;
+        int position = 0;
+        for(int i = 0; i < chunks.count; i++) {
+            if(position <= firsts[i]) {
+                total += counts[i];
+                position = Math.max(position, exits[i]);
+            } else {
+                long[] result = countChunk(prepared, chunks, value, i, position, step);
+                total += result[0];
+                position = Math.max(position, (int) result[2]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * A range of a batch processed by one task.
+     */
+    private interface Chunk {
+        void run(int from, int to);
+    }
+
+    private static final class ChunkAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Chunk chunk;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        ChunkAction(final Chunk chunk, final int from, final int to, final int grain) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= grain) {
+                chunk.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkAction(chunk, from, middle, grain), new ChunkAction(chunk, middle, to, grain));
+        }
+    }
+
+    private static void run(final int size, final Chunk chunk) {
+        if(size < SEQUENTIAL_THRESHOLD || POOL.getParallelism() == 1) {
+            chunk.run(0, size);
+            return;
+        }
+        // about four chunks per core, so that uneven values still balance out
+        int grain = Math.max(SEQUENTIAL_THRESHOLD / 4, size / (POOL.getParallelism() * 4));
+        POOL.invoke(new ChunkAction(chunk, 0, size, grain));
+    }
+
+    /**
+     * Counts the occurrences that start in chunk i at or after position, stepping by step after each one.
+     *
+     * @return count, first occurrence (Integer.MAX_VALUE if none) and where the search continues after the chunk.
+     */
+    private static long[] countChunk(final PreparedNeedle needle, final Chunks chunks, final String value, final int i, final int position, final int step) {
+        int end = chunks.end(i);
+        long count = 0L;
+        int first = Integer.MAX_VALUE;
+        int next = position;
+        int found = needle.indexOf(value, position, end);
+        while(found != -1) {
+            if(count++ == 0) {
+                first = found;
+            }
+            next = found + step;
+            found = needle.indexOf(value, next, end);
+        }
+        return new long[]{count, first, Math.max(next, chunks.begin(i + 1))};
+    }
+
+    /**
+     * The characters from start to length cut into count chunks of equal length. Chunk i is searched
+     * from begin(i) to end(i), overlap characters into the next chunk, so that every occurrence
+     * starting in the chunk is found.
+     */
+    private static final class Chunks {
+
+        final int start;
+        final int length;
+        final int overlap;
+        final int count;
+        final int span;
+
+        Chunks(final int start, final int length, final int needleLength) {
+            this.start = start;
+            this.length = length;
+            this.overlap = needleLength - 1;
+            // about four chunks per core, so that uneven chunks still balance out
+            int grain = Math.max(TEXT_THRESHOLD / 4, (length - start) / (POOL.getParallelism() * 4));
+            this.count = (length - start + grain - 1) / grain;
+            this.span = (length - start + count - 1) / count;
+        }
+
+        int begin(final int i) {
+            return (int) Math.min(length, start + (long) i * span);
+        }
+
+        int end(final int i) {
+            return (int) Math.min(length, (long) begin(i + 1) + overlap);
+        }
+
+        void run(final Chunk chunk) {
+            POOL.invoke(new ChunkAction(chunk, 0, count, 1));
+        }
+    }
+
+    private static boolean isShort(final int length) {
+        return length < TEXT_THRESHOLD || POOL.getParallelism() == 1;
+    }
+
+    private static String[] checkValues(final String[] values) {
+        if(values == null) {
+            throw new IllegalArgumentException("values can't be null");
+        }
+        return values;
+    }
+
+    private static String[] toArray(final Collection<String> values) {
+        if(values == null) {
+            throw new IllegalArgumentException("values can't be null");
+        }
+        return values.toArray(new String[values.size()]);
+    }
+}
@@ -0,0 +1,421 @@
+import java.util.Arrays;
+
+/**
+ * A chain of SimpleString transformations compiled into as few passes as possible over one buffer.
+ * Consecutive character filters (collapseWhitespace, removeNonWords, removeSpaces) are fused into a
+ * single pass, the other steps edit the buffer in place, and no intermediate String is created.
+ * <pre>
+ * Pipeline pipeline = Pipeline.builder().collapseWhitespace().removeNonWords().ensureLeft("id").truncate(16, "").build();
+ * pipeline.apply(" a b  c ");
+ * //result=>"idabc"
+ * </pre>
+ * Each step behaves like the SimpleString method of the same name, except that empty intermediate
+ * results are allowed. Instances are immutable and can be shared between threads.
+ */
+
+public final class Pipeline {
+
+    private static final int COLLAPSE_WHITESPACE = 0;
+    private static final int REMOVE_NON_WORDS = 1;
+    private static final int REMOVE_SPACES = 2;
+    private static final int LEFT_TRIM = 3;
+    private static final int RIGHT_TRIM = 4;
+    private static final int ENSURE_LEFT = 5;
+    private static final int ENSURE_RIGHT = 6;
+    private static final int REMOVE_LEFT = 7;
+    private static final int REMOVE_RIGHT = 8;
+    private static final int TRUNCATE = 9;
+    private static final int REVERSE = 10;
+
+    private final int[] kinds;
+    private final String[] texts;
+    private final int[] lengths;
+    private final boolean[] caseSensitive;
+
+    private Pipeline(final Builder builder) {
+        this.kinds = Arrays.copyOf(builder.kinds, builder.size);
+        this.texts = Arrays.copyOf(builder.texts, builder.size);
+        this.lengths = Arrays.copyOf(builder.lengths, builder.size);
+        this.caseSensitive = Arrays.copyOf(builder.caseSensitive, builder.size);
+    }
+
+    /**
+     * Starts an empty pipeline.
+     *
+     * @return The Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs the pipeline over value.
+     *
+     * @param value The input.
+     * @return The transformed String.
+     */
+    public String apply(final CharSequence value) {
+        if(value == null) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+        return apply(value, new StringBuilder(value.length())).toString();
+    }
+
+    /**
+     * Runs the pipeline over value and appends the result to buffer. The characters already in
+     * buffer are left untouched, so a single buffer can be reused for many values.
+     *
+     * @param value  The input.
+     * @param buffer The buffer to append to.
+     * @return The buffer.
+     */
+    public StringBuilder apply(final CharSequence value, final StringBuilder buffer) {
+        if(value == null) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+        int start = buffer.length();
+        int step = 0;
+        if(step < kinds.length && isFilter(kinds[step])) {
+            step = filter(value, 0, value.length(), buffer, step);
+        } else {
+            buffer.append(value);
+        }
+        while(step < kinds.length) {
+            if(isFilter(kinds[step])) {
+                step = filter(buffer, start, buffer.length(), buffer, step);
+            } else {
+                edit(buffer, start, step++);
+            }
+        }
+        return buffer;
+    }
+
+    private static boolean isFilter(final int kind) {
+        return kind <= REMOVE_SPACES;
+    }
+
+    /**
+     * Sends every character of in[from, to) through the run of filters starting at step, and appends
+     * the survivors to out. When in is out, the region is compacted in place instead.
+     */
+    private int filter(final CharSequence in, final int from, final int to, final StringBuilder out, final int step) {
+        int end = step;
+        boolean trim = false;
+        while(end < kinds.length && isFilter(kinds[end])) {
+            trim |= kinds[end] == COLLAPSE_WHITESPACE;
+            end++;
+        }
+        boolean inPlace = in == out;
+        int start = inPlace ? from : out.length();
+        int write = from;
+        // bit s - step is set while the last character that reached collapse step s was whitespace
+        long whitespace = 0L;
+        for(int read = from; read < to; read++) {
+            char c = in.charAt(read);
+            boolean keep = true;
+            for(int s = step; s < end && keep; s++) {
+                switch(kinds[s]) {
+                    case COLLAPSE_WHITESPACE:
+                        long bit = 1L << ((s - step) & 63);
+                        if(!SimpleString.isWhitespace(c)) {
+                            whitespace &= ~bit;
+                        } else if((whitespace & bit) != 0) {
+                            keep = false;
+                        } else {
+                            c = ' ';
+                            whitespace |= bit;
+                        }
+                        break;
+                    case REMOVE_NON_WORDS:
+                        keep = SimpleString.isWordChar(c);
+                        break;
+                    default:
+                        keep = !SimpleString.isWhitespace(c);
+                        break;
+                }
+            }
+            if(keep) {
+                if(inPlace) {
+                    out.setCharAt(write++, c);
+                } else {
+                    out.append(c);
+                }
+            }
+        }
+        if(inPlace) {
+            out.setLength(write);
+        }
+        if(trim) {
+            // the filters never turn a character above ' ' into one below, so trimming once at the end
+            // gives the same result as String.trim() inside collapseWhitespace
+            trim(out, start);
+        }
+        return end;
+    }
+
+    private static void trim(final StringBuilder buffer, final int start) {
+        int end = buffer.length();
+        while(end > start && buffer.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        buffer.setLength(end);
+        int first = start;
+        while(first < end && buffer.charAt(first) <= ' ') {
+            first++;
+        }
+        buffer.delete(start, first);
+    }
+
+    private void edit(final StringBuilder buffer, final int start, final int step) {
+        String text = texts[step];
+        int length = buffer.length() - start;
+        switch(kinds[step]) {
+            case LEFT_TRIM: {
+                int first = start;
+                while(first < buffer.length() && SimpleString.isWhitespace(buffer.charAt(first))) {
+                    first++;
+                }
+                buffer.delete(start, first);
+                break;
+            }
+            case RIGHT_TRIM: {
+                int end = buffer.length();
+                while(end > start && SimpleString.isWhitespace(buffer.charAt(end - 1))) {
+                    end--;
+                }
+                buffer.setLength(end);
+                break;
+            }
+            case ENSURE_LEFT:
+                if(!startsWith(buffer, start, text, caseSensitive[step])) {
+                    buffer.insert(start, text);
+                }
+                break;
+            case ENSURE_RIGHT:
+                if(!endsWith(buffer, start, text, caseSensitive[step])) {
+                    buffer.append(text);
+                }
+                break;
+            case REMOVE_LEFT:
+                if(startsWith(buffer, start, text, caseSensitive[step])) {
+                    buffer.delete(start, start + text.length());
+                }
+                break;
+            case REMOVE_RIGHT:
+                if(endsWith(buffer, start, text, caseSensitive[step])) {
+                    buffer.setLength(buffer.length() - text.length());
+                }
+                break;
+            case TRUNCATE:
+                if(lengths[step] == 0) {
+                    buffer.setLength(start);
+                } else if(lengths[step] < length) {
+                    buffer.setLength(start + lengths[step] - text.length());
+                    buffer.append(text);
+                }
+                break;
+            default: {
+                for(int i = start, j = buffer.length() - 1; i < j; i++, j--) {
+                    char c = buffer.charAt(i);
+                    buffer.setCharAt(i, buffer.charAt(j));
+                    buffer.setCharAt(j, c);
+                }
+                // keep surrogate pairs in order, as StringBuilder.reverse() does
+                for(int i = start; i < buffer.length() - 1; i++) {
+                    char c = buffer.charAt(i);
+                    if(Character.isLowSurrogate(c) && Character.isHighSurrogate(buffer.charAt(i + 1))) {
+                        buffer.setCharAt(i, buffer.charAt(i + 1));
+                        buffer.setCharAt(++i, c);
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    private static boolean startsWith(final StringBuilder buffer, final int start, final String prefix, final boolean caseSensitive) {
+        if(caseSensitive) {
+            return SimpleString.regionMatches(buffer, start, prefix, 0, prefix.length());
+        }
+        return SimpleString.regionMatchesIgnoreCase(buffer, start, prefix, 0, prefix.length());
+    }
+
+    private static boolean endsWith(final StringBuilder buffer, final int start, final String suffix, final boolean caseSensitive) {
+        int offset = buffer.length() - suffix.length();
+        return offset >= start && startsWith(buffer, offset, suffix, caseSensitive);
+    }
+
+    /**
+     * Collects the steps of a Pipeline. A Builder is not thread safe, the Pipelines it builds are.
+     */
+    public static final class Builder {
+
+        private int[] kinds = new int[8];
+        private String[] texts = new String[8];
+        private int[] lengths = new int[8];
+        private boolean[] caseSensitive = new boolean[8];
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds SimpleString.collapseWhitespace.
+         *
+         * @return this Builder.
+         */
+        public Builder collapseWhitespace() {
+            return add(COLLAPSE_WHITESPACE, null, 0, true);
+        }
+
+        /**
+         * Adds SimpleString.removeNonWords.
+         *
+         * @return this Builder.
+         */
+        public Builder removeNonWords() {
+            return add(REMOVE_NON_WORDS, null, 0, true);
+        }
+
+        /**
+         * Adds SimpleString.removeSpaces.
+         *
+         * @return this Builder.
+         */
+        public Builder removeSpaces() {
+            return add(REMOVE_SPACES, null, 0, true);
+        }
+
+        /**
+         * Adds SimpleString.leftTrim.
+         *
+         * @return this Builder.
+         */
+        public Builder leftTrim() {
+            return add(LEFT_TRIM, null, 0, true);
+        }
+
+        /**
+         * Adds SimpleString.rightTrim.
+         *
+         * @return this Builder.
+         */
+        public Builder rightTrim() {
+            return add(RIGHT_TRIM, null, 0, true);
+        }
+
+        /**
+         * Adds SimpleString.ensureLeft.
+         *
+         * @param prefix        prefix
+         * @param caseSensitive true or false
+         * @return this Builder.
+         */
+        public Builder ensureLeft(final String prefix, final boolean caseSensitive) {
+            return add(ENSURE_LEFT, prefix, 0, caseSensitive);
+        }
+
+        /**
+         * Adds SimpleString.ensureLeft, case sensitive.
+         *
+         * @param prefix prefix
+         * @return this Builder.
+         */
+        public Builder ensureLeft(final String prefix) {
+            return ensureLeft(prefix, true);
+        }
+
+        /**
+         * Adds SimpleString.ensureRight.
+         *
+         * @param suffix        suffix
+         * @param caseSensitive true or false
+         * @return this Builder.
+         */
+        public Builder ensureRight(final String suffix, final boolean caseSensitive) {
+            return add(ENSURE_RIGHT, suffix, 0, caseSensitive);
+        }
+
+        /**
+         * Adds SimpleString.ensureRight, case sensitive.
+         *
+         * @param suffix suffix
+         * @return this Builder.
+         */
+        public Builder ensureRight(final String suffix) {
+            return ensureRight(suffix, true);
+        }
+
+        /**
+         * Adds SimpleString.removeLeft.
+         *
+         * @param prefix        String to remove on left.
+         * @param caseSensitive true or false
+         * @return this Builder.
+         */
+        public Builder removeLeft(final String prefix, final boolean caseSensitive) {
+            return add(REMOVE_LEFT, prefix, 0, caseSensitive);
+        }
+
+        /**
+         * Adds SimpleString.removeRight.
+         *
+         * @param suffix        The suffix to remove.
+         * @param caseSensitive true or false
+         * @return this Builder.
+         */
+        public Builder removeRight(final String suffix, final boolean caseSensitive) {
+            return add(REMOVE_RIGHT, suffix, 0, caseSensitive);
+        }
+
+        /**
+         * Adds SimpleString.truncate.
+         *
+         * @param length Max size of the truncated String.
+         * @param filler String that will be added to the end of the truncated String.
+         * @return this Builder.
+         */
+        public Builder truncate(final int length, final String filler) {
+            if(length < 0 || (length > 0 && filler.length() > length)) {
+                throw new IllegalArgumentException("length must cover the filler");
+            }
+            return add(TRUNCATE, filler, length, true);
+        }
+
+        /**
+         * Adds SimpleString.reverse.
+         *
+         * @return this Builder.
+         */
+        public Builder reverse() {
+            return add(REVERSE, null, 0, true);
+        }
+
+        /**
+         * Builds the Pipeline. The Builder can still be used afterwards.
+         *
+         * @return The Pipeline.
+         */
+        public Pipeline build() {
+            return new Pipeline(this);
+        }
+
+        private Builder add(final int kind, final String text, final int length, final boolean caseSensitive) {
+            if(kind >= ENSURE_LEFT && kind <= TRUNCATE && text == null) {
+                throw new IllegalArgumentException("value can't be null");
+            }
+            if(size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                texts = Arrays.copyOf(texts, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                this.caseSensitive = Arrays.copyOf(this.caseSensitive, size * 2);
+            }
+            kinds[size] = kind;
+            texts[size] = text;
+            lengths[size] = length;
+            this.caseSensitive[size] = caseSensitive;
+            size++;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+import java.util.Arrays;
+
+/**
+ * A needle prepared once for repeated searches. Searches use Boyer-Moore-Horspool skip tables, which
+ * skip up to the whole needle length per step on ordinary text. When a repetitive input makes Horspool
+ * compare too many characters, the search switches to Knuth-Morris-Pratt for the rest of the value, so
+ * no search is ever worse than linear.
+ * Instances are immutable and can be shared between threads.
+ */
+
+public final class PreparedNeedle {
+
+    private static final int TABLE = 256;
+
+    private final String needle;
+    private final boolean caseSensitive;
+    private final char[] folded;
+
+    // shift of a forward window by the low byte of its last character, and of a backward window by the low byte of its first
+    private final int[] forward = new int[TABLE];
+    private final int[] backward = new int[TABLE];
+
+    private final StreamMatcher matcher;
+    private final StreamMatcher reversed;
+
+    private PreparedNeedle(final String needle, final boolean caseSensitive) {
+        this.needle = needle;
+        this.caseSensitive = caseSensitive;
+        int m = needle.length();
+        this.folded = new char[m];
+        for(int i = 0; i < m; i++) {
+            folded[i] = fold(needle.charAt(i));
+        }
+        Arrays.fill(forward, Math.max(m, 1));
+        Arrays.fill(backward, Math.max(m, 1));
+        for(int i = 0; i < m - 1; i++) {
+            forward[folded[i] & (TABLE - 1)] = m - 1 - i;
+        }
+        for(int i = m - 1; i > 0; i--) {
+            backward[folded[i] & (TABLE - 1)] = i;
+        }
+        this.matcher = new StreamMatcher(needle, caseSensitive);
+        this.reversed = new StreamMatcher(new StringBuilder(needle).reverse().toString(), caseSensitive);
+    }
+
+    /**
+     * Prepare a case sensitive needle.
+     *
+     * @param needle The search String.
+     * @return The prepared needle.
+     */
+    public static PreparedNeedle compile(final String needle) {
+        return compile(needle, true);
+    }
+
+    /**
+     * Prepare a needle.
+     *
+     * @param needle        The search String.
+     * @param caseSensitive whether search should be case sensitive.
+     * @return The prepared needle.
+     */
+    public static PreparedNeedle compile(final String needle, final boolean caseSensitive) {
+        if(needle == null) {
+            throw new IllegalArgumentException("needle can't be null");
+        }
+        return new PreparedNeedle(needle, caseSensitive);
+    }
+
+    /**
+     * Returns the index of the first occurrence of the needle at or after from, -1 if there is none.
+     *
+     * @param value The input.
+     * @param from  The index to start searching from.
+     * @return Position of the first occurrence.
+     */
+    public int indexOf(final CharSequence value, final int from) {
+        return indexOf(value, from, value.length());
+    }
+
+    /**
+     * Same as indexOf, for occurrences that end at or before end.
+     */
+    int indexOf(final CharSequence value, int from, final int end) {
+        int n = end;
+        int m = folded.length;
+        if(from < 0) {
+            from = 0;
+        }
+        if(m == 0) {
+            return Math.min(from, n);
+        }
+        int last = m - 1;
+        char tail = folded[last];
+        long work = 0;
+        for(int i = from; i <= n - m; ) {
+            char c = fold(value.charAt(i + last));
+            if(c == tail) {
+                int j = last - 1;
+                while(j >= 0 && fold(value.charAt(i + j)) == folded[j]) {
+                    j--;
+                }
+                if(j < 0) {
+                    return i;
+                }
+                work += last - j;
+                if(work > 3L * (i - from + m)) {
+                    return kmpIndexOf(value, i, end);
+                }
+            }
+            i += forward[c & (TABLE - 1)];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the needle at or before from, -1 if there is none.
+     *
+     * @param value The input.
+     * @param from  The index to start searching backwards from.
+     * @return Position of the last occurrence.
+     */
+    public int lastIndexOf(final CharSequence value, int from) {
+        int m = folded.length;
+        if(from > value.length() - m) {
+            from = value.length() - m;
+        }
+        if(from < 0) {
+            return -1;
+        }
+        if(m == 0) {
+            return from;
+        }
+        char head = folded[0];
+        long work = 0;
+        for(int i = from; i >= 0; ) {
+            char c = fold(value.charAt(i));
+            if(c == head) {
+                int j = 1;
+                while(j < m && fold(value.charAt(i + j)) == folded[j]) {
+                    j++;
+                }
+                if(j == m) {
+                    return i;
+                }
+                work += j;
+                if(work > 3L * (from - i + m)) {
+                    return kmpLastIndexOf(value, i);
+                }
+            }
+            i -= backward[c & (TABLE - 1)];
+        }
+        return -1;
+    }
+
+    /**
+     * Verifies that the needle is contained in value.
+     *
+     * @param value The input.
+     * @return true if found else false.
+     */
+    public boolean containedIn(final CharSequence value) {
+        return indexOf(value, 0) > -1;
+    }
+
+    /**
+     * Count the number of times the needle appears in value.
+     *
+     * @param value            The input.
+     * @param allowOverlapping whether occurrences may overlap.
+     * @return count of times the needle exists, 0 if it is empty.
+     */
+    public long count(final CharSequence value, final boolean allowOverlapping) {
+        int m = folded.length;
+        if(m == 0) {
+            return 0L;
+        }
+        int step = allowOverlapping ? 1 : m;
+        long count = 0L;
+        int position = indexOf(value, 0);
+        while(position != -1) {
+            count++;
+            position = indexOf(value, position + step);
+        }
+        return count;
+    }
+
+    /**
+     * The needle as given to compile.
+     *
+     * @return The needle.
+     */
+    public String needle() {
+        return needle;
+    }
+
+    /**
+     * Whether search is case sensitive.
+     *
+     * @return true or false
+     */
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    @Override
+    public String toString() {
+        return needle;
+    }
+
+    private int kmpIndexOf(final CharSequence value, final int from, final int end) {
+        int m = folded.length;
+        int state = 0;
+        for(int i = from; i < end; i++) {
+            state = matcher.next(state, value.charAt(i));
+            if(state == m) {
+                return i - m + 1;
+            }
+        }
+        return -1;
+    }
+
+    private int kmpLastIndexOf(final CharSequence value, final int from) {
+        int m = folded.length;
+        int state = 0;
+        for(int i = from + m - 1; i >= 0; i--) {
+            state = reversed.next(state, value.charAt(i));
+            if(state == m) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private char fold(final char c) {
+        return caseSensitive ? c : SimpleString.foldCase(c);
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A table of replacements compiled once into a trie and applied in a single left to right pass.
+ * At every position the longest matching key wins, and replaced text is never searched again.
+ * Instances are immutable and can be shared between threads.
+ */
+
+public final class Replacer {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final boolean caseSensitive;
+
+    // node n has edges labels[n][i] -> targets[n][i], labels sorted, and ends a key if replacements[n] is not null
+    private final char[][] labels;
+    private final int[][] targets;
+    private final String[] replacements;
+    private final int size;
+
+    private Replacer(final Map<String, String> replacements, final boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        List<TreeMap<Character, Integer>> edges = new ArrayList<TreeMap<Character, Integer>>();
+        List<String> values = new ArrayList<String>();
+        edges.add(new TreeMap<Character, Integer>());
+        values.add(null);
+        for(Map.Entry<String, String> entry : replacements.entrySet()) {
+            String key = entry.getKey();
+            if(key == null || key.isEmpty() || entry.getValue() == null) {
+                throw new IllegalArgumentException("keys can't be null or empty and values can't be null");
+            }
+            int node = 0;
+            for(int i = 0; i < key.length(); i++) {
+                char c = fold(key.charAt(i));
+                Integer next = edges.get(node).get(c);
+                if(next == null) {
+                    next = edges.size();
+                    edges.get(node).put(c, next);
+                    edges.add(new TreeMap<Character, Integer>());
+                    values.add(null);
+                }
+                node = next;
+            }
+            if(values.get(node) != null) {
+                throw new IllegalArgumentException("keys '" + key + "' collide ignoring case");
+            }
+            values.set(node, entry.getValue());
+        }
+        int nodes = edges.size();
+        this.labels = new char[nodes][];
+        this.targets = new int[nodes][];
+        this.replacements = values.toArray(new String[nodes]);
+        for(int n = 0; n < nodes; n++) {
+            TreeMap<Character, Integer> edge = edges.get(n);
+            if(edge.isEmpty()) {
+                labels[n] = NO_LABELS;
+                targets[n] = NO_TARGETS;
+                continue;
+            }
+            labels[n] = new char[edge.size()];
+            targets[n] = new int[edge.size()];
+            int i = 0;
+            for(Map.Entry<Character, Integer> entry : edge.entrySet()) {
+                labels[n][i] = entry.getKey();
+                targets[n][i++] = entry.getValue();
+            }
+        }
+        this.size = replacements.size();
+    }
+
+    /**
+     * Compile a table of replacements, mapping each key to its replacement.
+     *
+     * @param replacements  The table, keys are literal, never regular expressions.
+     * @param caseSensitive whether keys should be matched case sensitive
+     * @return The compiled Replacer.
+     */
+    public static Replacer compile(final Map<String, String> replacements, final boolean caseSensitive) {
+        if(replacements == null) {
+            throw new IllegalArgumentException("replacements can't be null");
+        }
+        return new Replacer(replacements, caseSensitive);
+    }
+
+    /**
+     * Replace every key found in value by its replacement.
+     *
+     * @param value The input String.
+     * @return value itself if no key is found, the replaced String otherwise.
+     */
+    public String replace(final String value) {
+        if(value == null) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+        int length = value.length();
+        int i = 0;
+        int match = 0;
+        while(i < length && (match = longestMatch(value, i)) == 0) {
+            i++;
+        }
+        if(i == length) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(length + 16).append(value, 0, i);
+        replace(value, i, match, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Replace every key found in value by its replacement, appending the result to builder.
+     *
+     * @param value   The input.
+     * @param builder The StringBuilder to append to.
+     * @return builder
+     */
+    public StringBuilder replace(final CharSequence value, final StringBuilder builder) {
+        if(value == null) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+        replace(value, 0, -1, builder);
+        return builder;
+    }
+
+    /**
+     * Number of keys in the table.
+     *
+     * @return The number of keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether keys are matched case sensitive.
+     *
+     * @return true or false
+     */
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    /**
+     * Continues from index, where a match of known length starts unless known is -1.
+     */
+    private void replace(final CharSequence value, int index, final int known, final StringBuilder builder) {
+        int length = value.length();
+        int match = known;
+        while(index < length) {
+            if(match == -1) {
+                match = longestMatch(value, index);
+            }
+            if(match == 0) {
+                builder.append(value.charAt(index++));
+            } else {
+                builder.append(replacementAt(value, index, match));
+                index += match;
+            }
+            match = -1;
+        }
+    }
+
+    /**
+     * Length of the longest key starting at index, 0 if none does.
+     */
+    private int longestMatch(final CharSequence value, final int index) {
+        int node = 0;
+        int longest = 0;
+        for(int i = index; i < value.length(); i++) {
+            char[] label = labels[node];
+            if(label.length == 0) {
+                break;
+            }
+            int edge = Arrays.binarySearch(label, fold(value.charAt(i)));
+            if(edge < 0) {
+                break;
+            }
+            node = targets[node][edge];
+            if(replacements[node] != null) {
+                longest = i - index + 1;
+            }
+        }
+        return longest;
+    }
+
+    private String replacementAt(final CharSequence value, final int index, final int length) {
+        int node = 0;
+        for(int i = index; i < index + length; i++) {
+            node = targets[node][Arrays.binarySearch(labels[node], fold(value.charAt(i)))];
+        }
+        return replacements[node];
+    }
+
+    private char fold(final char c) {
+        return caseSensitive ? c : SimpleString.foldCase(c);
+    }
+}
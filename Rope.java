@@ -0,0 +1,381 @@
+/**
+ * An immutable text for documents that are edited many times before they are read. The text is kept
+ * in a balanced tree of short String leaves, so appendString, prepend, insertStringAtIndex, slice,
+ * charAtIndex and reverse take logarithmic time instead of copying the whole text. The characters are
+ * only copied into one String when toString() is called.
+ * <pre>
+ * Rope document = Rope.of(header);
+ * for(String line : lines) {
+ *     document = document.appendString(line, "\n");
+ * }
+ * String text = document.toString();
+ * </pre>
+ * reverse keeps surrogate pairs together like SimpleString.reverse, except pairs that an edit has
+ * split into two leaves. Instances can be shared between threads.
+ */
+
+public final class Rope implements CharSequence {
+
+    /**
+     * Longest leaf, shorter texts are copied rather than split.
+     */
+    private static final int LEAF = 512;
+
+    private static final Node EMPTY = new Node("");
+
+    private final Node root;
+
+    private Rope(final Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns a rope holding the characters of value.
+     *
+     * @param value The input String.
+     * @return The rope.
+     */
+    public static Rope of(final String value) {
+        if(value == null) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+        return new Rope(build(value, 0, value.length()));
+    }
+
+    @Override
+    public int length() {
+        return root.length;
+    }
+
+    /**
+     * Tests if this rope has no characters.
+     *
+     * @return true if length is 0 false otherwise.
+     */
+    public boolean isEmpty() {
+        return root.length == 0;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if(index < 0 || index >= root.length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        Node node = root;
+        boolean reversed = false;
+        while(node.text == null) {
+            reversed ^= node.reversed;
+            Node first = reversed ? node.right : node.left;
+            if(index < first.length) {
+                node = first;
+            } else {
+                index -= first.length;
+                node = reversed ? node.left : node.right;
+            }
+        }
+        return reversed ? reversedCharAt(node.text, index) : node.text.charAt(index);
+    }
+
+    /**
+     * Get the character at index. This method will take care of negative indexes.
+     * The valid value of index is between -length and (length-1).
+     *
+     * @param index location
+     * @return      A character if found else empty
+     */
+    public String charAtIndex(int index) {
+        if(index < 0) {
+            index = root.length + index;
+        }
+        return (index < root.length && index >= 0) ? SimpleString.charToString(charAt(index)) : "";
+    }
+
+    /**
+     * Append Strings to this rope.
+     *
+     * @param appends Strings to append
+     * @return        The longer rope
+     */
+    public Rope appendString(final String... appends) {
+        Node node = root;
+        for(String append : appends) {
+            node = join(node, leaves(append));
+        }
+        return node == root ? this : new Rope(node);
+    }
+
+    /**
+     * Append another rope to this rope.
+     *
+     * @param rope The rope to append.
+     * @return     The longer rope
+     */
+    public Rope append(final Rope rope) {
+        if(rope == null) {
+            throw new IllegalArgumentException("rope can't be null");
+        }
+        return rope.isEmpty() ? this : new Rope(join(root, rope.root));
+    }
+
+    /**
+     * Return a new rope starting with prepends.
+     *
+     * @param prepends Strings to prepend
+     * @return The prepended rope
+     */
+    public Rope prepend(final String... prepends) {
+        Node node = root;
+        for(int i = prepends.length - 1; i >= 0; i--) {
+            node = join(leaves(prepends[i]), node);
+        }
+        return node == root ? this : new Rope(node);
+    }
+
+    /**
+     * Inserts 'substr' into this rope at the 'index' provided
+     *
+     * @param substr The String to insert
+     * @param index  The index to insert substr
+     * @return The rope with substr added, this rope if index is greater than its length.
+     */
+    public Rope insertStringAtIndex(final String substr, final int index) {
+        if(index > root.length) {
+            return this;
+        }
+        if(index < 0) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        Node[] parts = split(root, index);
+        return new Rope(join(join(parts[0], leaves(substr)), parts[1]));
+    }
+
+    /**
+     * Returns the characters between begin (inclusive) and end (exclusive) as a rope.
+     *
+     * @param begin Start of slice.
+     * @param end   End of slice.
+     * @return The rope sliced.
+     */
+    public Rope slice(final int begin, final int end) {
+        if(begin < 0 || end > root.length || begin > end) {
+            throw new StringIndexOutOfBoundsException("begin " + begin + ", end " + end + ", length " + root.length);
+        }
+        if(begin == 0 && end == root.length) {
+            return this;
+        }
+        return new Rope(split(split(root, end)[0], begin)[1]);
+    }
+
+    @Override
+    public Rope subSequence(final int begin, final int end) {
+        return slice(begin, end);
+    }
+
+    /**
+     * Reverse this rope.
+     *
+     * @return The reversed rope.
+     */
+    public Rope reverse() {
+        return new Rope(flip(root));
+    }
+
+    /**
+     * Appends the characters of this rope to builder without building an intermediate String.
+     *
+     * @param builder The StringBuilder to append to.
+     * @return builder
+     */
+    public StringBuilder appendTo(final StringBuilder builder) {
+        builder.ensureCapacity(builder.length() + root.length);
+        appendTo(root, false, builder);
+        return builder;
+    }
+
+    /**
+     * Copies the characters of this rope into a new String.
+     *
+     * @return The String.
+     */
+    @Override
+    public String toString() {
+        return root.text != null ? root.text : appendTo(new StringBuilder(root.length)).toString();
+    }
+
+    /**
+     * A leaf holds text, an inner node holds left and right. A reversed inner node reads as its right
+     * child reversed followed by its left child reversed.
+     */
+    private static final class Node {
+
+        final String text;
+        final Node left;
+        final Node right;
+        final int length;
+        final int height;
+        final boolean reversed;
+
+        Node(final String text) {
+            this.text = text;
+            this.left = null;
+            this.right = null;
+            this.length = text.length();
+            this.height = 0;
+            this.reversed = false;
+        }
+
+        Node(final Node left, final Node right, final boolean reversed) {
+            this.text = null;
+            this.left = left;
+            this.right = right;
+            this.length = left.length + right.length;
+            this.height = Math.max(left.height, right.height) + 1;
+            this.reversed = reversed;
+        }
+    }
+
+    private static Node leaves(final String value) {
+        if(value == null) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+        return build(value, 0, value.length());
+    }
+
+    private static Node build(final String value, final int begin, final int end) {
+        if(end - begin <= LEAF) {
+            return end - begin == 0 ? EMPTY : new Node(value.substring(begin, end));
+        }
+        int middle = (begin + end) >>> 1;
+        if(Character.isLowSurrogate(value.charAt(middle)) && Character.isHighSurrogate(value.charAt(middle - 1))) {
+            middle++;
+        }
+        return new Node(build(value, begin, middle), build(value, middle, end), false);
+    }
+
+    private static Node flip(final Node node) {
+        if(node.text != null) {
+            return node.length < 2 ? node : new Node(new StringBuilder(node.text).reverse().toString());
+        }
+        return new Node(node.left, node.right, !node.reversed);
+    }
+
+    private static Node leftOf(final Node node) {
+        return node.reversed ? flip(node.right) : node.left;
+    }
+
+    private static Node rightOf(final Node node) {
+        return node.reversed ? flip(node.left) : node.right;
+    }
+
+    /**
+     * Concatenates two balanced trees in time proportional to the difference of their heights.
+     */
+    private static Node join(final Node left, final Node right) {
+        if(left.length == 0) {
+            return right;
+        }
+        if(right.length == 0) {
+            return left;
+        }
+        if(left.height > right.height + 1) {
+            return balance(leftOf(left), join(rightOf(left), right));
+        }
+        if(right.height > left.height + 1) {
+            return balance(join(left, leftOf(right)), rightOf(right));
+        }
+        if(right.text != null && left.text == null) {
+            Node last = rightOf(left);
+            if(last.text != null && last.length + right.length <= LEAF) {
+                return new Node(leftOf(left), new Node(last.text + right.text), false);
+            }
+        } else if(left.text != null && right.text == null) {
+            Node first = leftOf(right);
+            if(first.text != null && left.length + first.length <= LEAF) {
+                return new Node(new Node(left.text + first.text), rightOf(right), false);
+            }
+        } else if(left.text != null && left.length + right.length <= LEAF) {
+            return new Node(left.text + right.text);
+        }
+        return new Node(left, right, false);
+    }
+
+    /**
+     * Joins two trees whose heights differ by at most two, rotating once if they differ by two.
+     */
+    private static Node balance(final Node left, final Node right) {
+        if(left.height > right.height + 1) {
+            Node outer = leftOf(left);
+            Node inner = rightOf(left);
+            if(outer.height >= inner.height) {
+                return new Node(outer, new Node(inner, right, false), false);
+            }
+            return new Node(new Node(outer, leftOf(inner), false), new Node(rightOf(inner), right, false), false);
+        }
+        if(right.height > left.height + 1) {
+            Node outer = rightOf(right);
+            Node inner = leftOf(right);
+            if(outer.height >= inner.height) {
+                return new Node(new Node(left, inner, false), outer, false);
+            }
+            return new Node(new Node(left, leftOf(inner), false), new Node(rightOf(inner), outer, false), false);
+        }
+        return new Node(left, right, false);
+    }
+
+    /**
+     * Splits node into the characters before index and the characters from index on.
+     */
+    private static Node[] split(final Node node, final int index) {
+        if(index == 0) {
+            return new Node[]{EMPTY, node};
+        }
+        if(index == node.length) {
+            return new Node[]{node, EMPTY};
+        }
+        if(node.text != null) {
+            return new Node[]{new Node(node.text.substring(0, index)), new Node(node.text.substring(index))};
+        }
+        Node left = leftOf(node);
+        Node right = rightOf(node);
+        if(index < left.length) {
+            Node[] parts = split(left, index);
+            return new Node[]{parts[0], join(parts[1], right)};
+        }
+        if(index > left.length) {
+            Node[] parts = split(right, index - left.length);
+            return new Node[]{join(left, parts[0]), parts[1]};
+        }
+        return new Node[]{left, right};
+    }
+
+    private static void appendTo(final Node node, final boolean reversed, final StringBuilder builder) {
+        if(node.text != null) {
+            if(!reversed) {
+                builder.append(node.text);
+                return;
+            }
+            for(int i = 0; i < node.length; i++) {
+                builder.append(reversedCharAt(node.text, i));
+            }
+            return;
+        }
+        boolean flipped = reversed ^ node.reversed;
+        appendTo(flipped ? node.right : node.left, flipped, builder);
+        appendTo(flipped ? node.left : node.right, flipped, builder);
+    }
+
+    /**
+     * Character at index of new StringBuilder(text).reverse(), which keeps surrogate pairs in order.
+     */
+    private static char reversedCharAt(final String text, final int index) {
+        int source = text.length() - 1 - index;
+        char c = text.charAt(source);
+        if(Character.isLowSurrogate(c) && source > 0 && Character.isHighSurrogate(text.charAt(source - 1))) {
+            return text.charAt(source - 1);
+        }
+        if(Character.isHighSurrogate(c) && source + 1 < text.length() && Character.isLowSurrogate(text.charAt(source + 1))) {
+            return text.charAt(source + 1);
+        }
+        return c;
+    }
+}
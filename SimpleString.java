@@ -1,6 +1,11 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * A simple String manipulation library without any dependencies.
@@ -12,6 +17,29 @@ import java.util.regex.Pattern;
 
 public abstract class SimpleString {
 
+    /**
+     * Lookup tables for the ASCII character classes \s and \w, which match nothing outside ASCII.
+     */
+    private static final boolean[] WHITESPACE = new boolean[128];
+    private static final boolean[] WORD = new boolean[128];
+
+    /**
+     * One character Strings for Latin-1, shared so that single characters can be returned without allocating.
+     */
+    private static final String[] LATIN1 = new String[256];
+
+    static {
+        for(char c = 0; c < LATIN1.length; c++) {
+            LATIN1[c] = String.valueOf(c);
+        }
+        for(char c : " \t\n\u000B\f\r".toCharArray()) {
+            WHITESPACE[c] = true;
+        }
+        for(char c = 0; c < 128; c++) {
+            WORD[c] = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+        }
+    }
+
     /**
      * Append Strings to value.
      *
@@ -20,7 +48,12 @@ public abstract class SimpleString {
      * @return        full String
      */
     public static String appendString(final String value, final String... appends) {
-        return appendArray(value, appends);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return appended(value, appends);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "appendString", value);
+        }
     }
 
     /**
@@ -31,14 +64,29 @@ public abstract class SimpleString {
      * @return        full String
      */
     public static String appendArray(final String value, final String[] appends) {
-        if(appends == null || appends.length == 0) {
-            return value;
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return appended(value, appends);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "appendArray", value);
         }
-        StringBuffer buffer = new StringBuffer("");
-        for(String append : appends) {
-            buffer.append(append);
+    }
+
+    /**
+     * Append value and then appends to builder. The capacity of builder is grown at most once.
+     *
+     * @param builder The StringBuilder to append to
+     * @param value   origin string
+     * @param appends An array of strings to append
+     * @return        builder
+     */
+    public static StringBuilder appendTo(final StringBuilder builder, final String value, final String... appends) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return appendAll(builder, value, appends);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "appendTo", value);
         }
-        return value + buffer.toString();
     }
 
     /**
@@ -50,14 +98,48 @@ public abstract class SimpleString {
      * @return      A character if found else empty
      */
     public static String charAtIndex(final String value, int index) {
-        if(value == null || value.isEmpty()) {
-            return "";
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            if(value == null || value.isEmpty()) {
+                return "";
+            }
+            int length = value.length();
+            if(index < 0) {
+                index = length + index;
+            }
+            return (index < length && index >= 0) ? charToString(value.charAt(index)) : "";
+        } finally {
+            SimpleStringMetrics.exit(metrics, "charAtIndex", value);
         }
-        int length = value.length();
-        if(index < 0) {
-            index = length + index;
+    }
+
+    /**
+     * Get the code point at index, counted in code points rather than chars. This method will take care of negative indexes.
+     * The valid value of index is between -codePointCount and (codePointCount-1).
+     *
+     * @param value input value
+     * @param index location in code points
+     * @return      The code point as a String if found else empty
+     */
+    public static String codePointAtIndex(final String value, int index) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            if(value == null || value.isEmpty()) {
+                return "";
+            }
+            int count = value.codePointCount(0, value.length());
+            if(index < 0) {
+                index = count + index;
+            }
+            if(index >= count || index < 0) {
+                return "";
+            }
+            int offset = value.offsetByCodePoints(0, index);
+            int codePoint = value.codePointAt(offset);
+            return codePoint < LATIN1.length ? LATIN1[codePoint] : value.substring(offset, offset + Character.charCount(codePoint));
+        } finally {
+            SimpleStringMetrics.exit(metrics, "codePointAtIndex", value);
         }
-        return (index < length && index >= 0) ? String.valueOf(value.charAt(index)) : "";
     }
 
     /**
@@ -67,19 +149,104 @@ public abstract class SimpleString {
      * @return      character array
      */
     public static String[] stringToArray(final String value) {
-        if(value == null || value.isEmpty()) {
-            return new String[0];
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            if(value == null || value.isEmpty()) {
+                return new String[0];
+            }
+            String[] array = new String[value.length()];
+            for(int i = 0; i < array.length; i++) {
+                array[i] = charToString(value.charAt(i));
+            }
+            return array;
+        } finally {
+            SimpleStringMetrics.exit(metrics, "stringToArray", value);
         }
-        int length = value.length();
-        String[] array = new String[length];
-        String[] result = value.split("");
-        if(result.length <= length) {
-            return result;
+    }
+
+    /**
+     * Returns a String array consisting of the code points in the String. Unlike stringToArray,
+     * a surrogate pair stays together in one element.
+     *
+     * @param value input String
+     * @return      code point array
+     */
+    public static String[] stringToCodePointArray(final String value) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            if(value == null || value.isEmpty()) {
+                return new String[0];
+            }
+            String[] array = new String[value.codePointCount(0, value.length())];
+            for(int i = 0, offset = 0; i < array.length; i++) {
+                int codePoint = value.codePointAt(offset);
+                int next = offset + Character.charCount(codePoint);
+                array[i] = codePoint < LATIN1.length ? LATIN1[codePoint] : value.substring(offset, next);
+                offset = next;
+            }
+            return array;
+        } finally {
+            SimpleStringMetrics.exit(metrics, "stringToCodePointArray", value);
+        }
+    }
+
+    /**
+     * Returns the code points of the String.
+     *
+     * @param value input String
+     * @return      code points
+     */
+    public static int[] stringToCodePoints(final String value) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            if(value == null || value.isEmpty()) {
+                return new int[0];
+            }
+            int[] codePoints = new int[value.codePointCount(0, value.length())];
+            for(int i = 0, offset = 0; i < codePoints.length; i++) {
+                codePoints[i] = value.codePointAt(offset);
+                offset += Character.charCount(codePoints[i]);
+            }
+            return codePoints;
+        } finally {
+            SimpleStringMetrics.exit(metrics, "stringToCodePoints", value);
         }
-        for(int i = 0; i < length; i ++) {
-            array[i] = result[i+1];
+    }
+
+    /**
+     * Returns the characters of the String one at a time, as stringToArray would, without building the array.
+     *
+     * @param value input String
+     * @return      Iterator over the characters
+     */
+    public static Iterator<String> charIterator(final String value) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            final String source = value == null ? "" : value;
+            return new Iterator<String>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < source.length();
+                }
+
+                @Override
+                public String next() {
+                    if(index >= source.length()) {
+                        throw new NoSuchElementException();
+                    }
+                    return charToString(source.charAt(index++));
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        } finally {
+            SimpleStringMetrics.exit(metrics, "charIterator", value);
         }
-        return array;
     }
 
     /**
@@ -89,10 +256,84 @@ public abstract class SimpleString {
      * @return      collapsed String
      */
     public static String collapseWhitespace(final String value) {
-        if(value == null || value.isEmpty()) {
-            return "";
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            if(value == null || value.isEmpty()) {
+                return "";
+            }
+            String trimmed = value.trim();
+            int length = trimmed.length();
+            int i = 0;
+            while(i < length) {
+                char c = trimmed.charAt(i);
+                if(isWhitespace(c) && (c != ' ' || isWhitespace(trimmed.charAt(i + 1)))) {
+                    break;
+                }
+                i++;
+            }
+            if(i == length) {
+                return trimmed;
+            }
+            StringBuilder builder = new StringBuilder(length).append(trimmed, 0, i);
+            boolean inWhitespace = false;
+            for(; i < length; i++) {
+                char c = trimmed.charAt(i);
+                if(!isWhitespace(c)) {
+                    builder.append(c);
+                    inWhitespace = false;
+                } else if(!inWhitespace) {
+                    builder.append(' ');
+                    inWhitespace = true;
+                }
+            }
+            return builder.toString();
+        } finally {
+            SimpleStringMetrics.exit(metrics, "collapseWhitespace", value);
+        }
+    }
+
+    /**
+     * Replace consecutive whitespace characters with a single space, appending the result to out.
+     * Nothing is allocated when out is a StringBuilder.
+     *
+     * @param value input String
+     * @param out   The Appendable to append to.
+     * @return      out
+     * @throws IOException if out throws it.
+     */
+    public static <A extends Appendable> A collapseWhitespace(final String value, final A out) throws IOException {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            if(value == null) {
+                return out;
+            }
+            int begin = 0;
+            int end = value.length();
+            while(begin < end && value.charAt(begin) <= ' ') {
+                begin++;
+            }
+            while(end > begin && value.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            int start = begin;
+            boolean inWhitespace = false;
+            for(int i = begin; i < end; i++) {
+                char c = value.charAt(i);
+                if(!isWhitespace(c)) {
+                    if(inWhitespace) {
+                        out.append(' ');
+                        start = i;
+                        inWhitespace = false;
+                    }
+                } else if(!inWhitespace) {
+                    append(out, value, start, i);
+                    inWhitespace = true;
+                }
+            }
+            return append(out, value, start, end);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "collapseWhitespace", value);
         }
-        return value.trim().replaceAll("\\s+", " ");
     }
 
     /**
@@ -103,7 +344,12 @@ public abstract class SimpleString {
      * @return  true if found else false.
      */
     public static boolean contains(final String value, final String needle) {
-        return contains(value, needle, true);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return containsString(value, needle, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "contains", value);
+        }
     }
 
     /**
@@ -115,11 +361,47 @@ public abstract class SimpleString {
      * @return  true if found else false.
      */
     public static boolean contains(final String value, final String needle, final boolean caseSensitive) {
-        isStringExist(value);
-        if(caseSensitive) {
-            return value.contains(needle);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return containsString(value, needle, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "contains", value);
+        }
+    }
+
+    /**
+     * Verifies that the needle is contained in the value without copying either of them.
+     * Accepts any CharSequence such as a StringView.
+     *
+     * @param value   input to search
+     * @param needle  needle to find
+     * @return  true if found else false.
+     */
+    public static boolean contains(final CharSequence value, final CharSequence needle) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return containsSequence(value, needle, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "contains", value);
+        }
+    }
+
+    /**
+     * Verifies that the needle is contained in the value without copying either of them.
+     * Accepts any CharSequence such as a StringView.
+     *
+     * @param value   input to search
+     * @param needle  needle to find
+     * @param caseSensitive true or false
+     * @return  true if found else false.
+     */
+    public static boolean contains(final CharSequence value, final CharSequence needle, final boolean caseSensitive) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return containsSequence(value, needle, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "contains", value);
         }
-        return value.toLowerCase().contains(needle.toLowerCase());
     }
 
     /**
@@ -130,7 +412,12 @@ public abstract class SimpleString {
      * @return true if all needles are found else false.
      */
     public static boolean containsAll(final String value, final String[] needles) {
-        return containsAll(value, needles, true);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return allContained(value, needles, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "containsAll", value);
+        }
     }
 
     /**
@@ -142,14 +429,12 @@ public abstract class SimpleString {
      * @return true if all needles are found else false.
      */
     public static boolean containsAll(final String value, final String[] needles, final boolean caseSensitive) {
-        boolean result = true;
-        for(int i = 0; i < needles.length; i ++) {
-            result = contains(value, needles[i], caseSensitive);
-            if(!result) {
-                break;
-            }
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return allContained(value, needles, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "containsAll", value);
         }
-        return result;
     }
 
     /**
@@ -160,7 +445,29 @@ public abstract class SimpleString {
      * @return true if all needles are found else false.
      */
     public static boolean containsAny(final String value, final String[] needles) {
-        return containsAny(value, needles, true);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return anyContained(value, needles, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "containsAny", value);
+        }
+    }
+
+    /**
+     * Verifies that a PreparedNeedle is contained in value.
+     *
+     * @param value  input to search
+     * @param needle prepared needle to find
+     * @return true if found else false.
+     */
+    public static boolean contains(final CharSequence value, final PreparedNeedle needle) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return needle.indexOf(value, 0) > -1;
+        } finally {
+            SimpleStringMetrics.exit(metrics, "contains", value);
+        }
     }
 
     /**
@@ -172,14 +479,46 @@ public abstract class SimpleString {
      * @return true if all needles are found else false.
      */
     public static boolean containsAny(final String value, final String[] needles, final boolean caseSensitive) {
-        boolean result = false;
-        for(int i = 0; i < needles.length; i ++) {
-            result = contains(value, needles[i], caseSensitive);
-            if(result) {
-                break;
-            }
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return anyContained(value, needles, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "containsAny", value);
+        }
+    }
+
+    /**
+     * Verifies that all needles of a compiled NeedleSet are contained in value. The value is scanned only once.
+     *
+     * @param value   input String to search
+     * @param needles compiled needles to find
+     * @return true if all needles are found else false.
+     */
+    public static boolean containsAll(final String value, final NeedleSet needles) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return needles.containsAll(value);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "containsAll", value);
+        }
+    }
+
+    /**
+     * Verifies that one or more needles of a compiled NeedleSet are contained in value. The value is scanned only once.
+     *
+     * @param value   input String to search
+     * @param needles compiled needles to find
+     * @return true if any needle is found else false.
+     */
+    public static boolean containsAny(final String value, final NeedleSet needles) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return needles.containsAny(value);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "containsAny", value);
         }
-        return result;
     }
 
     /**
@@ -190,27 +529,68 @@ public abstract class SimpleString {
      * @return count of times substring exists.
      */
     public static long countSubstr(final String value, final String subStr) {
-        return countSubstr(value, subStr, true);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return countSequence(value, subStr, true, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "countSubstr", value);
+        }
     }
 
     /**
-     * Count the number of times substr appears in value.
+     * Count the number of times substr appears in value. Occurrences may overlap.
      *
      * @param value            input
      * @param subStr           input string to search
      * @param caseSensitive    whether search should be case sensitive.
-     * @return
+     * @return count of times substring exists.
      */
     public static long countSubstr(final String value, final String subStr, final boolean caseSensitive) {
-        return countSubstr(caseSensitive ? value : value.toLowerCase(), caseSensitive ? subStr : subStr.toLowerCase(), 0L);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return countSequence(value, subStr, caseSensitive, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "countSubstr", value);
+        }
+    }
+
+    /**
+     * Count the number of times substr appears in value in a single pass. No substring is created,
+     * so any CharSequence such as a StringBuilder or a CharBuffer can be counted in place.
+     *
+     * @param value            input
+     * @param subStr           input string to search
+     * @param caseSensitive    whether search should be case sensitive.
+     * @param allowOverlapping whether occurrences may overlap, "aa" is found 3 times in "aaaa" if true and 2 times otherwise.
+     * @return count of times substring exists, 0 if subStr is empty.
+     */
+    public static long countSubstr(final CharSequence value, final CharSequence subStr, final boolean caseSensitive, final boolean allowOverlapping) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return countSequence(value, subStr, caseSensitive, allowOverlapping);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "countSubstr", value);
+        }
     }
 
-    private static long countSubstr(String value, String subStr, long count) {
-        int position = value.indexOf(subStr);
-        if(position == -1) {
-            return count;
+    /**
+     * Count the number of times a PreparedNeedle appears in value.
+     *
+     * @param value            input
+     * @param needle           prepared needle to count
+     * @param allowOverlapping whether occurrences may overlap.
+     * @return count of times the needle exists, 0 if it is empty.
+     */
+    public static long countSubstr(final CharSequence value, final PreparedNeedle needle, final boolean allowOverlapping) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            if(value == null || needle == null) {
+                throw new IllegalArgumentException("value can't be null");
+            }
+            return needle.count(value, allowOverlapping);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "countSubstr", value);
         }
-        return countSubstr(value.substring(position + 1), subStr, ++count);
     }
 
     /**
@@ -221,7 +601,12 @@ public abstract class SimpleString {
      * @return true or false
      */
     public static boolean endsWith(final String value, final String search) {
-        return endsWith(value, search, true);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return endsWithString(value, search, value.length(), true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "endsWith", value);
+        }
     }
 
     /**
@@ -233,7 +618,12 @@ public abstract class SimpleString {
      * @return true or false
      */
     public static boolean endsWith(final String value, final String search, final boolean caseSensitive) {
-        return endsWith(value, search, value.length(), caseSensitive);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return endsWithString(value, search, value.length(), caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "endsWith", value);
+        }
     }
 
     /**
@@ -246,12 +636,35 @@ public abstract class SimpleString {
      * @return true of false
      */
     public static boolean endsWith(final String value, final String search, final int position, final boolean caseSensitive) {
-        isStringExist(value);
-        int remainingLength = position - search.length();
-        if(caseSensitive) {
-            return value.indexOf(search, remainingLength) > -1;
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return endsWithString(value, search, position, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "endsWith", value);
+        }
+    }
+
+    /**
+     * Test if value ends with search without copying either of them.
+     * Accepts any CharSequence such as a StringView.
+     *
+     * @param value         input
+     * @param search        sequence to search
+     * @param caseSensitive true or false
+     * @return true or false
+     */
+    public static boolean endsWith(final CharSequence value, final CharSequence search, final boolean caseSensitive) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            int offset = value.length() - search.length();
+            if(caseSensitive) {
+                return regionMatches(value, offset, search, 0, search.length());
+            }
+            return regionMatchesIgnoreCase(value, offset, search, 0, search.length());
+        } finally {
+            SimpleStringMetrics.exit(metrics, "endsWith", value);
         }
-        return value.toLowerCase().indexOf(search.toLowerCase(), remainingLength) > -1;
     }
 
     /**
@@ -262,7 +675,12 @@ public abstract class SimpleString {
      * @return string with prefix if it was not present.
      */
     public static String ensureLeft(final String value, final String prefix) {
-        return ensureLeft(value, prefix, true);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return ensureLeftString(value, prefix, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "ensureLeft", value);
+        }
     }
 
     /**
@@ -274,13 +692,37 @@ public abstract class SimpleString {
      * @return string with prefix if it was not present.
      */
     public static String ensureLeft(final String value, final String prefix, final boolean caseSensitive) {
-        isStringExist(value);
-        if(caseSensitive) {
-            return value.startsWith(prefix) ? value : prefix + value;
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return ensureLeftString(value, prefix, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "ensureLeft", value);
+        }
+    }
+
+    /**
+     * Ensures that the value begins with prefix, appending the result to out.
+     * Nothing is allocated when out is a StringBuilder.
+     *
+     * @param value         input
+     * @param prefix        prefix
+     * @param caseSensitive true or false
+     * @param out           The Appendable to append to.
+     * @return out
+     * @throws IOException if out throws it.
+     */
+    public static <A extends Appendable> A ensureLeft(final String value, final String prefix, final boolean caseSensitive, final A out) throws IOException {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            boolean present = caseSensitive ? value.startsWith(prefix) : regionMatchesIgnoreCase(value, 0, prefix, 0, prefix.length());
+            if(!present) {
+                append(out, prefix, 0, prefix.length());
+            }
+            return append(out, value, 0, value.length());
+        } finally {
+            SimpleStringMetrics.exit(metrics, "ensureLeft", value);
         }
-        String _value = value.toLowerCase();
-        String _prefix = prefix.toLowerCase();
-        return _value.startsWith(_prefix) ? value : prefix + value;
     }
 
     /**
@@ -290,7 +732,12 @@ public abstract class SimpleString {
      * @return The string which is guaranteed to start with substr.
      */
     public static String ensureRight(final String value, final String suffix) {
-        return ensureRight(value, suffix, true);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return ensureRightString(value, suffix, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "ensureRight", value);
+        }
     }
 
     /**
@@ -302,7 +749,33 @@ public abstract class SimpleString {
      * @return The String which is guaranteed to start with substr.
      */
     public static String ensureRight(final String value, final String suffix, boolean caseSensitive) {
-        return endsWith(value, suffix, caseSensitive) ? value : appendString(value, suffix);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return ensureRightString(value, suffix, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "ensureRight", value);
+        }
+    }
+
+    /**
+     * Ensures that the value ends with suffix, appending the result to out.
+     * Nothing is allocated when out is a StringBuilder.
+     *
+     * @param value         The input string
+     * @param suffix        The substr to be ensured to be right.
+     * @param caseSensitive Use case (in-)sensitive matching for determining if value already ends with suffix.
+     * @param out           The Appendable to append to.
+     * @return out
+     * @throws IOException if out throws it.
+     */
+    public static <A extends Appendable> A ensureRight(final String value, final String suffix, final boolean caseSensitive, final A out) throws IOException {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            append(out, value, 0, value.length());
+            return endsWithString(value, suffix, value.length(), caseSensitive) ? out : append(out, suffix, 0, suffix.length());
+        } finally {
+            SimpleStringMetrics.exit(metrics, "ensureRight", value);
+        }
     }
 
     /**
@@ -313,8 +786,30 @@ public abstract class SimpleString {
      * @return The first n chars
      */
     public static String firstChars(final String value, final int n) {
-        isStringExist(value);
-        return value.substring(0, n);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return value.substring(0, n);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "firstChars", value);
+        }
+    }
+
+    /**
+     * Returns a view on the first n chars of string. Nothing is copied.
+     *
+     * @param value The input string.
+     * @param n     Number of chars in the view.
+     * @return The first n chars
+     */
+    public static StringView firstCharsView(final String value, final int n) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return StringView.of(value, 0, n);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "firstCharsView", value);
+        }
     }
 
     /**
@@ -324,7 +819,13 @@ public abstract class SimpleString {
      * @return The first char.
      */
     public static String headChar(final String value) {
-        return firstChars(value,1);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return charToString(value.charAt(0));
+        } finally {
+            SimpleStringMetrics.exit(metrics, "headChar", value);
+        }
     }
 
     /**
@@ -338,11 +839,55 @@ public abstract class SimpleString {
      * @return Returns position of first occurrence of needle.
      */
     public static int indexOf(final String value, final String needle, int offset, boolean caseSensitive) {
-        isStringExist(value);
-        if(caseSensitive) {
-            return value.indexOf(needle, offset);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            if(caseSensitive) {
+                return value.indexOf(needle, offset);
+            }
+            return indexOfIgnoreCase(value, needle, offset);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "indexOf", value);
+        }
+    }
+
+    /**
+     * Returns the index of the first occurrence of needle at or after offset, without copying either of them.
+     * Accepts any CharSequence such as a StringView. Returns -1 if the value is not found.
+     *
+     * @param value         The input.
+     * @param needle        The search sequence.
+     * @param offset        The offset to start searching from.
+     * @param caseSensitive boolean to indicate whether should be case sensitive.
+     * @return Returns position of first occurrence of needle.
+     */
+    public static int indexOf(final CharSequence value, final CharSequence needle, final int offset, final boolean caseSensitive) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return indexOfSequence(value, needle, offset, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "indexOf", value);
+        }
+    }
+
+    /**
+     * This method returns the index within the calling String object of the first occurrence of a PreparedNeedle,
+     * starting the search at offset. Returns -1 if the needle is not found.
+     *
+     * @param value  The input.
+     * @param needle The prepared needle.
+     * @param offset The offset to start searching from.
+     * @return Returns position of first occurrence of needle.
+     */
+    public static int indexOf(final CharSequence value, final PreparedNeedle needle, final int offset) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return needle.indexOf(value, offset);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "indexOf", value);
         }
-        return value.toLowerCase().indexOf(needle.toLowerCase(), offset);
     }
 
     /**
@@ -353,7 +898,12 @@ public abstract class SimpleString {
      * @return true if first and second are not equal false otherwise.
      */
     public static boolean unequal(final String first, final String second) {
-        return !Objects.equals(first, second);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return !Objects.equals(first, second);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "unequal", first);
+        }
     }
 
     /**
@@ -365,11 +915,20 @@ public abstract class SimpleString {
      * @return String with substr added.
      */
     public static String insertStringAtIndex(final String value, final String substr, final int index) {
-        isStringExist(value);
-        if(index > value.length()) {
-            return value;
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            if(index > value.length()) {
+                return value;
+            }
+            return new StringBuilder(value.length() + length(substr))
+                    .append(value, 0, index)
+                    .append(substr)
+                    .append(value, index, value.length())
+                    .toString();
+        } finally {
+            SimpleStringMetrics.exit(metrics, "insertStringAtIndex", value);
         }
-        return appendString(value.substring(0, index), substr, value.substring(index));
     }
 
     /**
@@ -379,13 +938,27 @@ public abstract class SimpleString {
      * @return true if string uppercase false otherwise.
      */
     public static boolean isUpperCase(final String value) {
-        isStringExist(value);
-        for(int i = 0; i < value.length(); i++) {
-            if(Character.isLowerCase(value.charAt(i))) {
-                return false;
-            }
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return isUpperCaseSequence(value);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "isUpperCase", value);
+        }
+    }
+
+    /**
+     * Verifies if a CharSequence such as a StringView is uppercase.
+     *
+     * @param value The input.
+     * @return true if value uppercase false otherwise.
+     */
+    public static boolean isUpperCase(final CharSequence value) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return isUpperCaseSequence(value);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "isUpperCase", value);
         }
-        return true;
     }
 
     /**
@@ -395,13 +968,27 @@ public abstract class SimpleString {
      * @return true if string is lowercase false otherwise.
      */
     public static boolean isLowerCase(final String value) {
-        isStringExist(value);
-        for(int i = 0; i < value.length(); i++) {
-            if(Character.isUpperCase(value.charAt(i))) {
-                return false;
-            }
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return isLowerCaseSequence(value);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "isLowerCase", value);
+        }
+    }
+
+    /**
+     * Verifies if a CharSequence such as a StringView is lower case.
+     *
+     * @param value The input.
+     * @return true if value is lowercase false otherwise.
+     */
+    public static boolean isLowerCase(final CharSequence value) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return isLowerCaseSequence(value);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "isLowerCase", value);
         }
-        return true;
     }
 
 
@@ -413,24 +1000,46 @@ public abstract class SimpleString {
      * @return n last characters
      */
     public static String lastChars(final String value, int n) {
-       isStringExist(value);
-        if(n > value.length()) {
-            return value;
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return lastCharsOf(value, n);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "lastChars", value);
         }
-        return value.substring(value.length() - n);
     }
 
     /**
-     * Checks whether Object is String.
+     * Returns a view on the last n chars of string. Nothing is copied.
      *
-     * @param value The input String.
-     * @return true if Object is a String false otherwise.
+     * @param value The input string
+     * @param n     Number of chars in the view
+     * @return n last characters
      */
-    public static boolean isString(final Object value) {
-        if(value == null) {
-            throw new IllegalArgumentException("value can't be null");
+    public static StringView lastCharsView(final String value, final int n) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return lastCharsViewOf(value, n);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "lastCharsView", value);
+        }
+    }
+
+    /**
+     * Checks whether Object is String.
+     *
+     * @param value The input String.
+     * @return true if Object is a String false otherwise.
+     */
+    public static boolean isString(final Object value) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            if(value == null) {
+                throw new IllegalArgumentException("value can't be null");
+            }
+            return value instanceof String;
+        } finally {
+            SimpleStringMetrics.exit(metrics, "isString", null);
         }
-        return value instanceof String;
     }
 
     /**
@@ -442,7 +1051,12 @@ public abstract class SimpleString {
      * @return Return position of the last occurrence of 'needle'.
      */
     public static int lastIndexOf(final String value, final String needle) {
-        return lastIndexOf(value, needle, value.length(), true);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return lastIndexOfString(value, needle, value.length(), true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "lastIndexOf", value);
+        }
     }
 
     /**
@@ -457,7 +1071,12 @@ public abstract class SimpleString {
      * @return Return position of the last occurrence of 'needle'.
      */
     public static int lastIndexOf(final String value, final String needle, boolean caseSensitive) {
-        return lastIndexOf(value, needle, value.length(), caseSensitive);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return lastIndexOfString(value, needle, value.length(), caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "lastIndexOf", value);
+        }
     }
 
     /**
@@ -472,11 +1091,51 @@ public abstract class SimpleString {
      * @return Return position of the last occurrence of 'needle'.
      */
     public static int lastIndexOf(final String value, final String needle, final int offset, final boolean caseSensitive) {
-        isStringExist(value);
-        if(caseSensitive) {
-            return value.lastIndexOf(needle, offset);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return lastIndexOfString(value, needle, offset, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "lastIndexOf", value);
+        }
+    }
+
+    /**
+     * Returns the index of the last occurrence of needle at or before offset, without copying either of them.
+     * Accepts any CharSequence such as a StringView. Returns -1 if the value is not found.
+     *
+     * @param value         The input.
+     * @param needle        The search sequence.
+     * @param offset        The index to start search from.
+     * @param caseSensitive whether search should be case sensitive.
+     * @return Return position of the last occurrence of 'needle'.
+     */
+    public static int lastIndexOf(final CharSequence value, final CharSequence needle, final int offset, final boolean caseSensitive) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return lastIndexOfSequence(value, needle, offset, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "lastIndexOf", value);
+        }
+    }
+
+    /**
+     * This method returns the index within the calling String object of the last occurrence of a PreparedNeedle,
+     * searching backwards from offset. Returns -1 if the needle is not found.
+     *
+     * @param value  The input.
+     * @param needle The prepared needle.
+     * @param offset The index to start search from.
+     * @return Return position of the last occurrence of needle.
+     */
+    public static int lastIndexOf(final CharSequence value, final PreparedNeedle needle, final int offset) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return needle.lastIndexOf(value, offset);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "lastIndexOf", value);
         }
-        return value.toLowerCase().lastIndexOf(needle.toLowerCase(), offset);
     }
 
     /**
@@ -486,8 +1145,17 @@ public abstract class SimpleString {
      * @return String without left border spaces.
      */
     public static String leftTrim(final String value) {
-        isStringExist(value);
-        return value.replaceAll("^\\s+","");
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            int i = 0;
+            while(i < value.length() && isWhitespace(value.charAt(i))) {
+                i++;
+            }
+            return value.substring(i);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "leftTrim", value);
+        }
     }
 
     /**
@@ -497,8 +1165,17 @@ public abstract class SimpleString {
      * @return String without right borders spaces.
      */
     public static String rightTrim(final String value) {
-        isStringExist(value);
-        return value.replaceAll("\\s+$", "");
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            int i = value.length();
+            while(i > 0 && isWhitespace(value.charAt(i - 1))) {
+                i--;
+            }
+            return value.substring(0, i);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "rightTrim", value);
+        }
     }
 
     /**
@@ -507,8 +1184,13 @@ public abstract class SimpleString {
      * @return Length of the String
      */
     public static int stringLength(final String value) {
-        isStringExist(value);
-        return value.length();
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return value.length();
+        } finally {
+            SimpleStringMetrics.exit(metrics, "stringLength", value);
+        }
     }
 
     /**
@@ -519,7 +1201,12 @@ public abstract class SimpleString {
      * @return The prepended String
      */
     public static String prepend(final String value, final String... prepends) {
-        return prependArray(value, prepends);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return prepended(value, prepends);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "prepend", value);
+        }
     }
 
     /**
@@ -530,14 +1217,29 @@ public abstract class SimpleString {
      * @return The prepended String
      */
     public static String prependArray(final String value, final String[] prepends) {
-        if(prepends == null || prepends.length == 0) {
-            return value;
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return prepended(value, prepends);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "prependArray", value);
         }
-        StringBuffer buffer = new StringBuffer("");
-        for(String prepend : prepends) {
-            buffer.append(prepend);
+    }
+
+    /**
+     * Append prepends and then value to builder. The capacity of builder is grown at most once.
+     *
+     * @param builder  The StringBuilder to append to
+     * @param value    The input String
+     * @param prepends Strings to prepend
+     * @return builder
+     */
+    public static StringBuilder prependTo(final StringBuilder builder, final String value, final String... prepends) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return prependAll(builder, value, prepends);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "prependTo", value);
         }
-        return buffer.toString() + value;
     }
 
     /**
@@ -548,7 +1250,12 @@ public abstract class SimpleString {
      * @return The String without prefix
      */
     public static String removeLeft(final String value, final String prefix) {
-        return removeLeft(value, prefix, true);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return removeLeftString(value, prefix, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "removeLeft", value);
+        }
     }
 
     /**
@@ -560,11 +1267,34 @@ public abstract class SimpleString {
      * @return The String without prefix
      */
     public static String removeLeft(final String value, final String prefix, final boolean caseSensitive) {
-        isStringExist(value);
-        if(caseSensitive) {
-            return value.startsWith(prefix) ? value.substring(prefix.length()) : value;
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return removeLeftString(value, prefix, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "removeLeft", value);
+        }
+    }
+
+    /**
+     * Removes the prefix, if present, appending the result to out.
+     * Nothing is allocated when out is a StringBuilder.
+     *
+     * @param value         The input String.
+     * @param prefix        String to remove on left.
+     * @param caseSensitive ensure case sensitivity
+     * @param out           The Appendable to append to.
+     * @return out
+     * @throws IOException if out throws it.
+     */
+    public static <A extends Appendable> A removeLeft(final String value, final String prefix, final boolean caseSensitive, final A out) throws IOException {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            boolean present = caseSensitive ? value.startsWith(prefix) : regionMatchesIgnoreCase(value, 0, prefix, 0, prefix.length());
+            return append(out, value, present ? prefix.length() : 0, value.length());
+        } finally {
+            SimpleStringMetrics.exit(metrics, "removeLeft", value);
         }
-        return value.toLowerCase().startsWith(prefix.toLowerCase()) ? value.substring(prefix.length()) : value;
     }
 
     /**
@@ -574,8 +1304,13 @@ public abstract class SimpleString {
      * @return String without non-word characters.
      */
     public static String removeNonWords(final String value) {
-        isStringExist(value);
-        return value.replaceAll("[^\\w]+","");
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return keepOnly(value, WORD, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "removeNonWords", value);
+        }
     }
 
     /**
@@ -586,7 +1321,12 @@ public abstract class SimpleString {
      * @return The String without suffix.
      */
     public static String removeRight(final String value, final String suffix) {
-        return removeRight(value, suffix, true);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return removeRightString(value, suffix, true);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "removeRight", value);
+        }
     }
 
     /**
@@ -598,7 +1338,33 @@ public abstract class SimpleString {
      * @return The String without suffix.
      */
     public static String removeRight(final String value, final String suffix, final boolean caseSensitive) {
-        return endsWith(value, suffix, caseSensitive) ? value.substring(0, value.toLowerCase().lastIndexOf(suffix.toLowerCase())) : value;
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return removeRightString(value, suffix, caseSensitive);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "removeRight", value);
+        }
+    }
+
+    /**
+     * Removes the suffix, if present, appending the result to out.
+     * Nothing is allocated when out is a StringBuilder.
+     *
+     * @param value         The input string.
+     * @param suffix        The suffix to remove.
+     * @param caseSensitive whether search should be case sensitive or not
+     * @param out           The Appendable to append to.
+     * @return out
+     * @throws IOException if out throws it.
+     */
+    public static <A extends Appendable> A removeRight(final String value, final String suffix, final boolean caseSensitive, final A out) throws IOException {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            int end = endsWithString(value, suffix, value.length(), caseSensitive) ? value.length() - suffix.length() : value.length();
+            return append(out, value, 0, end);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "removeRight", value);
+        }
     }
 
     /**
@@ -608,12 +1374,19 @@ public abstract class SimpleString {
      * @return String without spaces.
      */
     public static String removeSpaces(final String value) {
-        isStringExist(value);
-        return value.replaceAll("\\s", "");
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return keepOnly(value, WHITESPACE, false);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "removeSpaces", value);
+        }
     }
 
     /**
-     * Replace all occurrences of 'search' value to 'newvalue'.Uses String replace method.
+     * Replace all occurrences of 'search' value to 'newvalue'. The search is literal, never a regular expression.
+     * Without caseSensitive, characters match by the Unicode folding of the other caseSensitive=false methods,
+     * not just ASCII letters, so 'k' also matches U+212A KELVIN SIGN and U+00E9 matches U+00C9.
      * @param value
      * @param search
      * @param newValue
@@ -621,11 +1394,98 @@ public abstract class SimpleString {
      * @return String replaced with 'newvalue'.
      */
     public static String replaceString(final String value, final String search, final String newValue, final boolean caseSensitive) {
-        isStringExist(value);
-        if(caseSensitive) {
-            return value.replace(search, newValue);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            if(search.isEmpty()) {
+                return value.replace(search, newValue);
+            }
+            int position = indexOfSequence(value, search, 0, caseSensitive);
+            if(position == -1) {
+                return value;
+            }
+            StringBuilder builder = new StringBuilder(value.length());
+            int start = 0;
+            while(position != -1) {
+                builder.append(value, start, position).append(newValue);
+                start = position + search.length();
+                position = indexOfSequence(value, search, start, caseSensitive);
+            }
+            return builder.append(value, start, value.length()).toString();
+        } finally {
+            SimpleStringMetrics.exit(metrics, "replaceString", value);
+        }
+    }
+
+    /**
+     * Replace all occurrences of 'search' value to 'newvalue', appending the result to out.
+     * Nothing is allocated when out is a StringBuilder. Case insensitive matching is the same as replaceString.
+     *
+     * @param value         The input String.
+     * @param search        The search String.
+     * @param newValue      The replacement.
+     * @param caseSensitive whether search should be case sensitive
+     * @param out           The Appendable to append to.
+     * @return out
+     * @throws IOException if out throws it.
+     */
+    public static <A extends Appendable> A replaceString(final String value, final String search, final String newValue, final boolean caseSensitive, final A out) throws IOException {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            if(search.isEmpty()) {
+                for(int i = 0; i < value.length(); i++) {
+                    append(out, newValue, 0, newValue.length()).append(value.charAt(i));
+                }
+                return append(out, newValue, 0, newValue.length());
+            }
+            int start = 0;
+            int position = indexOfSequence(value, search, 0, caseSensitive);
+            while(position != -1) {
+                append(out, value, start, position);
+                append(out, newValue, 0, newValue.length());
+                start = position + search.length();
+                position = indexOfSequence(value, search, start, caseSensitive);
+            }
+            return append(out, value, start, value.length());
+        } finally {
+            SimpleStringMetrics.exit(metrics, "replaceString", value);
+        }
+    }
+
+    /**
+     * Replace all occurrences of the keys of a compiled Replacer in a single pass. The longest key wins
+     * where several keys match, and replaced text is never searched again.
+     *
+     * @param value    The input String.
+     * @param replacer compiled table of replacements
+     * @return String with every key replaced.
+     */
+    public static String replaceEach(final String value, final Replacer replacer) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return replaceWith(value, replacer);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "replaceEach", value);
+        }
+    }
+
+    /**
+     * Replace all occurrences of the keys of replacements in a single pass. Compile the table once
+     * with Replacer.compile when it is used more than once.
+     *
+     * @param value         The input String.
+     * @param replacements  table of replacements
+     * @param caseSensitive whether keys should be matched case sensitive
+     * @return String with every key replaced.
+     */
+    public static String replaceEach(final String value, final Map<String, String> replacements, final boolean caseSensitive) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return replaceWith(value, Replacer.compile(replacements, caseSensitive));
+        } finally {
+            SimpleStringMetrics.exit(metrics, "replaceEach", value);
         }
-        return Pattern.compile(search, Pattern.CASE_INSENSITIVE).matcher(value).replaceAll(Matcher.quoteReplacement(newValue));
     }
 
     /**
@@ -635,12 +1495,44 @@ public abstract class SimpleString {
      * @return Reverse String
      */
     public static String reverse(final String value) {
-        isStringExist(value);
-        return new StringBuilder(value).reverse().toString();
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return new StringBuilder(value).reverse().toString();
+        } finally {
+            SimpleStringMetrics.exit(metrics, "reverse", value);
+        }
+    }
+
+    /**
+     * Reverse the input String, appending the result to out. Surrogate pairs are kept in order.
+     * Nothing is allocated when out is a StringBuilder.
+     *
+     * @param value The input String.
+     * @param out   The Appendable to append to.
+     * @return out
+     * @throws IOException if out throws it.
+     */
+    public static <A extends Appendable> A reverse(final String value, final A out) throws IOException {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            for(int i = value.length() - 1; i >= 0; i--) {
+                char c = value.charAt(i);
+                if(Character.isLowSurrogate(c) && i > 0 && Character.isHighSurrogate(value.charAt(i - 1))) {
+                    out.append(value.charAt(--i));
+                }
+                out.append(c);
+            }
+            return out;
+        } finally {
+            SimpleStringMetrics.exit(metrics, "reverse", value);
+        }
     }
 
     /**
      * Truncate the string securely , not cutting a word in half.It always returns the last full word.
+     * Only the characters around the cut point are scanned, however long value is.
      *
      * @param value  The input String.
      * @param length Max size of the truncated String.
@@ -648,25 +1540,48 @@ public abstract class SimpleString {
      * @return The truncated String
      */
     public static String safeTruncate(final String value, final int length, final String filler) {
-        isStringExist(value);
-        if(length == 0) {
-            return "";
-        }
-        if(length >= value.length()) {
-            return value;
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            if(length == 0) {
+                return "";
+            }
+            if(length >= value.length()) {
+                return value;
+            }
+            int end = safeTruncateEnd(value, length, filler);
+            return new StringBuilder(end + filler.length()).append(value, 0, end).append(filler).toString();
+        } finally {
+            SimpleStringMetrics.exit(metrics, "safeTruncate", value);
         }
-        String[] words = words(value);
-        StringBuffer buffer = new StringBuffer(" ");
-        int spaceCount = 0;
-        for(String word : words) {
-            if(buffer.length() + word.length() + filler.length() + spaceCount > length) {
-                break;
-            } else {
-                buffer.append(word);
-                spaceCount ++;
+    }
+
+    /**
+     * Truncate the string securely, not cutting a word in half, appending the result to out.
+     * Nothing is allocated when out is a StringBuilder.
+     *
+     * @param value  The input String.
+     * @param length Max size of the truncated String.
+     * @param filler String that will be added to the end of the return string.
+     * @param out    The Appendable to append to.
+     * @return out
+     * @throws IOException if out throws it.
+     */
+    public static <A extends Appendable> A safeTruncate(final String value, final int length, final String filler, final A out) throws IOException {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            if(length == 0) {
+                return out;
+            }
+            if(length >= value.length()) {
+                return append(out, value, 0, value.length());
             }
+            append(out, value, 0, safeTruncateEnd(value, length, filler));
+            return append(out, filler, 0, filler.length());
+        } finally {
+            SimpleStringMetrics.exit(metrics, "safeTruncate", value);
         }
-        return appendString(buffer.toString(), filler);
     }
 
     /**
@@ -677,8 +1592,49 @@ public abstract class SimpleString {
      * @return String Array
      */
     public static String[] split(final String value, final String regex) {
-        isStringExist(value);
-        return value.split(regex);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return value.split(regex);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "split", value);
+        }
+    }
+
+    /**
+     * Splits value around a literal delimiter, lazily. No regular expression is involved and every field
+     * is a view on value, so nothing is copied. Unlike split, trailing empty fields are returned.
+     *
+     * @param value     The input String.
+     * @param delimiter The delimiting character.
+     * @param limit     Number of fields at most, the last one holding the rest of value. 0 or less for no limit.
+     * @return Iterator over the fields.
+     */
+    public static Iterator<StringView> splitIterator(final String value, final char delimiter, final int limit) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return literalSplitIterator(value, charToString(delimiter), limit);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "splitIterator", value);
+        }
+    }
+
+    /**
+     * Splits value around a literal delimiter, lazily. No regular expression is involved and every field
+     * is a view on value, so nothing is copied. Unlike split, trailing empty fields are returned.
+     *
+     * @param value     The input String.
+     * @param delimiter The delimiting String.
+     * @param limit     Number of fields at most, the last one holding the rest of value. 0 or less for no limit.
+     * @return Iterator over the fields.
+     */
+    public static Iterator<StringView> splitIterator(final String value, final String delimiter, final int limit) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return literalSplitIterator(value, delimiter, limit);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "splitIterator", value);
+        }
     }
 
     /**
@@ -687,19 +1643,132 @@ public abstract class SimpleString {
      * @return Words Array.
      */
     public static String[] words(final String value) {
-        isStringExist(value);
-        return value.split("\\W+");
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            List<String> words = new ArrayList<String>();
+            int length = value.length();
+            int start = 0;
+            int i = 0;
+            while(i < length) {
+                if(isWordChar(value.charAt(i))) {
+                    i++;
+                    continue;
+                }
+                int end = i;
+                while(i < length && !isWordChar(value.charAt(i))) {
+                    i++;
+                }
+                words.add(value.substring(start, end));
+                start = i;
+            }
+            if(words.isEmpty()) {
+                return new String[]{value};
+            }
+            words.add(value.substring(start));
+            // same as String.split, trailing empty strings are not included
+            int size = words.size();
+            while(size > 0 && words.get(size - 1).isEmpty()) {
+                size--;
+            }
+            return words.subList(0, size).toArray(new String[size]);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "words", value);
+        }
+    }
+
+    /**
+     * Returns the words of value one at a time. Unlike words, value is only scanned as far as the
+     * words taken from the Iterator, and no empty word is returned.
+     *
+     * @param value The input.
+     * @return Iterator over the words.
+     */
+    public static Iterator<String> wordIterator(final CharSequence value) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return new Iterator<String>() {
+                private int start = skipNonWords(0);
+
+                @Override
+                public boolean hasNext() {
+                    return start < value.length();
+                }
+
+                @Override
+                public String next() {
+                    if(start >= value.length()) {
+                        throw new NoSuchElementException();
+                    }
+                    int end = start;
+                    while(end < value.length() && isWordChar(value.charAt(end))) {
+                        end++;
+                    }
+                    String word = value.subSequence(start, end).toString();
+                    start = skipNonWords(end);
+                    return word;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+
+                private int skipNonWords(int index) {
+                    while(index < value.length() && !isWordChar(value.charAt(index))) {
+                        index++;
+                    }
+                    return index;
+                }
+            };
+        } finally {
+            SimpleStringMetrics.exit(metrics, "wordIterator", value);
+        }
     }
 
     public static String truncate(final String value, final int length, final String filler) {
-        isStringExist(value);
-        if(length == 0) {
-            return "";
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            if(length == 0) {
+                return "";
+            }
+            if(length >= value.length()) {
+                return value;
+            }
+            return appended(value.substring(0, length - filler.length()), filler);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "truncate", value);
         }
-        if(length >= value.length()) {
-            return value;
+    }
+
+    /**
+     * Truncate the value to length, ending with filler, appending the result to out.
+     * Nothing is allocated when out is a StringBuilder.
+     *
+     * @param value  The input String.
+     * @param length Max size of the truncated String.
+     * @param filler String that will be added to the end of the return string.
+     * @param out    The Appendable to append to.
+     * @return out
+     * @throws IOException if out throws it.
+     */
+    public static <A extends Appendable> A truncate(final String value, final int length, final String filler, final A out) throws IOException {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            if(length == 0) {
+                return out;
+            }
+            if(length >= value.length()) {
+                return append(out, value, 0, value.length());
+            }
+            append(out, value, 0, length - filler.length());
+            return append(out, filler, 0, filler.length());
+        } finally {
+            SimpleStringMetrics.exit(metrics, "truncate", value);
         }
-        return appendString(value.substring(0, length - filler.length()), filler);
     }
 
     /**
@@ -711,8 +1780,31 @@ public abstract class SimpleString {
      * @return The String sliced.
      */
     public static String slice(final String value, int begin, int end) {
-        isStringExist(value);
-        return value.substring(begin, end);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return value.substring(begin, end);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "slice", value);
+        }
+    }
+
+    /**
+     * Returns a view on a slice of value. Nothing is copied.
+     *
+     * @param value The input string.
+     * @param begin Start of slice.
+     * @param end   End of slice.
+     * @return The view on the slice.
+     */
+    public static StringView sliceView(final String value, final int begin, final int end) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            isStringExist(value);
+            return StringView.of(value, begin, end);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "sliceView", value);
+        }
     }
 
     /**
@@ -722,7 +1814,606 @@ public abstract class SimpleString {
      * @return String tail.
      */
     public static String tail(final String value) {
-        return lastChars(value, value.length() - 1);
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return lastCharsOf(value, value.length() - 1);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "tail", value);
+        }
+    }
+
+    /**
+     * Returns a view on the tail of the String. Nothing is copied.
+     *
+     * @param value The input String.
+     * @return View on the String tail.
+     */
+    public static StringView tailView(final String value) {
+        long metrics = SimpleStringMetrics.enter();
+        try {
+            return lastCharsViewOf(value, value.length() - 1);
+        } finally {
+            SimpleStringMetrics.exit(metrics, "tailView", value);
+        }
+    }
+
+    /**
+     * Implements appendString and appendArray.
+     */
+    private static String appended(final String value, final String... appends) {
+        if(appends == null || appends.length == 0) {
+            return value;
+        }
+        return appendAll(new StringBuilder(length(value) + totalLength(appends)), value, appends).toString();
+    }
+
+    /**
+     * Implements appendTo.
+     */
+    private static StringBuilder appendAll(final StringBuilder builder, final String value, final String[] appends) {
+        builder.ensureCapacity(builder.length() + length(value) + totalLength(appends));
+        builder.append(value);
+        if(appends != null) {
+            for(String append : appends) {
+                builder.append(append);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Implements contains for Strings.
+     */
+    private static boolean containsString(final String value, final String needle, final boolean caseSensitive) {
+        isStringExist(value);
+        if(caseSensitive) {
+            return value.contains(needle);
+        }
+        return indexOfIgnoreCase(value, needle, 0) > -1;
+    }
+
+    /**
+     * Implements contains for CharSequences.
+     */
+    private static boolean containsSequence(final CharSequence value, final CharSequence needle, final boolean caseSensitive) {
+        isStringExist(value);
+        return indexOfSequence(value, needle, 0, caseSensitive) > -1;
+    }
+
+    /**
+     * Implements containsAll for an array of needles.
+     */
+    private static boolean allContained(final String value, final String[] needles, final boolean caseSensitive) {
+        boolean result = true;
+        for(int i = 0; i < needles.length; i ++) {
+            result = containsString(value, needles[i], caseSensitive);
+            if(!result) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Implements containsAny for an array of needles.
+     */
+    private static boolean anyContained(final String value, final String[] needles, final boolean caseSensitive) {
+        boolean result = false;
+        for(int i = 0; i < needles.length; i ++) {
+            result = containsString(value, needles[i], caseSensitive);
+            if(result) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Implements countSubstr for CharSequences.
+     */
+    private static long countSequence(final CharSequence value, final CharSequence subStr, final boolean caseSensitive, final boolean allowOverlapping) {
+        if(value == null || subStr == null) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+        int length = subStr.length();
+        if(length == 0) {
+            return 0L;
+        }
+        int step = allowOverlapping ? 1 : length;
+        long count = 0L;
+        int position = indexOfSequence(value, subStr, 0, caseSensitive);
+        while(position != -1) {
+            count++;
+            position = indexOfSequence(value, subStr, position + step, caseSensitive);
+        }
+        return count;
+    }
+
+    /**
+     * Implements endsWith for Strings.
+     */
+    private static boolean endsWithString(final String value, final String search, final int position, final boolean caseSensitive) {
+        isStringExist(value);
+        int remainingLength = position - search.length();
+        if(caseSensitive) {
+            return value.indexOf(search, remainingLength) > -1;
+        }
+        return indexOfIgnoreCase(value, search, remainingLength) > -1;
+    }
+
+    /**
+     * Implements ensureLeft.
+     */
+    private static String ensureLeftString(final String value, final String prefix, final boolean caseSensitive) {
+        isStringExist(value);
+        if(caseSensitive) {
+            return value.startsWith(prefix) ? value : prefix + value;
+        }
+        return regionMatchesIgnoreCase(value, 0, prefix, 0, prefix.length()) ? value : prefix + value;
+    }
+
+    /**
+     * Implements ensureRight.
+     */
+    private static String ensureRightString(final String value, final String suffix, final boolean caseSensitive) {
+        return endsWithString(value, suffix, value.length(), caseSensitive) ? value : appended(value, suffix);
+    }
+
+    /**
+     * Implements isUpperCase.
+     */
+    private static boolean isUpperCaseSequence(final CharSequence value) {
+        isStringExist(value);
+        for(int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if(c < 128 ? (c >= 'a' && c <= 'z') : Character.isLowerCase(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Implements isLowerCase.
+     */
+    private static boolean isLowerCaseSequence(final CharSequence value) {
+        isStringExist(value);
+        for(int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if(c < 128 ? (c >= 'A' && c <= 'Z') : Character.isUpperCase(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Implements lastChars and tail.
+     */
+    private static String lastCharsOf(final String value, final int n) {
+        isStringExist(value);
+        if(n > value.length()) {
+            return value;
+        }
+        return value.substring(value.length() - n);
+    }
+
+    /**
+     * Implements lastCharsView and tailView.
+     */
+    private static StringView lastCharsViewOf(final String value, final int n) {
+        isStringExist(value);
+        if(n > value.length()) {
+            return StringView.of(value);
+        }
+        return StringView.of(value, value.length() - n, value.length());
+    }
+
+    /**
+     * Implements lastIndexOf for Strings.
+     */
+    private static int lastIndexOfString(final String value, final String needle, final int offset, final boolean caseSensitive) {
+        isStringExist(value);
+        if(caseSensitive) {
+            return value.lastIndexOf(needle, offset);
+        }
+        return lastIndexOfIgnoreCase(value, needle, offset);
+    }
+
+    /**
+     * Implements prepend and prependArray.
+     */
+    private static String prepended(final String value, final String[] prepends) {
+        if(prepends == null || prepends.length == 0) {
+            return value;
+        }
+        return prependAll(new StringBuilder(length(value) + totalLength(prepends)), value, prepends).toString();
+    }
+
+    /**
+     * Implements prependTo.
+     */
+    private static StringBuilder prependAll(final StringBuilder builder, final String value, final String[] prepends) {
+        builder.ensureCapacity(builder.length() + length(value) + totalLength(prepends));
+        if(prepends != null) {
+            for(String prepend : prepends) {
+                builder.append(prepend);
+            }
+        }
+        return builder.append(value);
+    }
+
+    /**
+     * Implements removeLeft.
+     */
+    private static String removeLeftString(final String value, final String prefix, final boolean caseSensitive) {
+        isStringExist(value);
+        if(caseSensitive) {
+            return value.startsWith(prefix) ? value.substring(prefix.length()) : value;
+        }
+        return regionMatchesIgnoreCase(value, 0, prefix, 0, prefix.length()) ? value.substring(prefix.length()) : value;
+    }
+
+    /**
+     * Implements removeRight.
+     */
+    private static String removeRightString(final String value, final String suffix, final boolean caseSensitive) {
+        return endsWithString(value, suffix, value.length(), caseSensitive) ? value.substring(0, value.length() - suffix.length()) : value;
+    }
+
+    /**
+     * Implements replaceEach.
+     */
+    private static String replaceWith(final String value, final Replacer replacer) {
+        isStringExist(value);
+        return replacer.replace(value);
+    }
+
+    /**
+     * Implements splitIterator.
+     */
+    private static Iterator<StringView> literalSplitIterator(final String value, final String delimiter, final int limit) {
+        if(value == null || delimiter == null) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+        if(delimiter.isEmpty()) {
+            throw new IllegalArgumentException("delimiter can't be empty");
+        }
+        return new Iterator<StringView>() {
+            // start of the next field, -1 once the last field is returned
+            private int start;
+            private int fields;
+
+            @Override
+            public boolean hasNext() {
+                return start >= 0;
+            }
+
+            @Override
+            public StringView next() {
+                if(start < 0) {
+                    throw new NoSuchElementException();
+                }
+                int end = ++fields == limit ? -1 : delimiter.length() == 1
+                        ? value.indexOf(delimiter.charAt(0), start) : value.indexOf(delimiter, start);
+                StringView field = StringView.of(value, start, end < 0 ? value.length() : end);
+                start = end < 0 ? -1 : end + delimiter.length();
+                return field;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Returns c as a String, shared for Latin-1 characters.
+     *
+     * @param c The input character.
+     * @return The one character String.
+     */
+    static String charToString(final char c) {
+        return c < LATIN1.length ? LATIN1[c] : String.valueOf(c);
+    }
+
+    /**
+     * Length of value as appended by StringBuilder, which appends "null" for null.
+     */
+    private static int length(final String value) {
+        return value == null ? 4 : value.length();
+    }
+
+    private static int totalLength(final String[] values) {
+        int total = 0;
+        if(values != null) {
+            for(String value : values) {
+                total += length(value);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Tests if c belongs to the regular expression character class \s.
+     *
+     * @param c The input character.
+     * @return true if c is whitespace false otherwise.
+     */
+    static boolean isWhitespace(final char c) {
+        return c <= ' ' && WHITESPACE[c];
+    }
+
+    /**
+     * Tests if c belongs to the regular expression character class \w.
+     *
+     * @param c The input character.
+     * @return true if c is a word character false otherwise.
+     */
+    static boolean isWordChar(final char c) {
+        return c < 128 && WORD[c];
+    }
+
+    /**
+     * End of the part of value kept by safeTruncate, before the filler.
+     */
+    private static int safeTruncateEnd(final String value, final int length, final String filler) {
+        int end = Math.max(0, length - filler.length());
+        // step back to the start of the word that is cut in half, if any
+        if(end > 0 && isWordChar(value.charAt(end)) && isWordChar(value.charAt(end - 1))) {
+            while(end > 0 && isWordChar(value.charAt(end - 1))) {
+                end--;
+            }
+        }
+        while(end > 0 && !isWordChar(value.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Appends value from begin to end without the copy Appendable.append(CharSequence, int, int) makes on a Writer.
+     */
+    private static <A extends Appendable> A append(final A out, final String value, final int begin, final int end) throws IOException {
+        if(out instanceof StringBuilder) {
+            ((StringBuilder) out).append(value, begin, end);
+        } else if(out instanceof Writer) {
+            ((Writer) out).write(value, begin, end - begin);
+        } else {
+            out.append(value, begin, end);
+        }
+        return out;
+    }
+
+    /**
+     * Removes every character whose membership in table differs from keep.
+     * The input instance is returned when nothing is removed.
+     *
+     * @param value The input String.
+     * @param table The character class, characters outside of it never belong to it.
+     * @param keep  Whether the characters of the class are kept or removed.
+     * @return String without the removed characters.
+     */
+    private static String keepOnly(final String value, final boolean[] table, final boolean keep) {
+        int length = value.length();
+        int i = 0;
+        while(i < length && inTable(table, value.charAt(i)) == keep) {
+            i++;
+        }
+        if(i == length) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(length).append(value, 0, i);
+        for(; i < length; i++) {
+            char c = value.charAt(i);
+            if(inTable(table, c) == keep) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean inTable(final boolean[] table, final char c) {
+        return c < 128 && table[c];
+    }
+
+    /**
+     * Fold a character for case insensitive comparison. Uses the same rule as
+     * String.regionMatches(true, ...) so folded characters never change the length of a String.
+     *
+     * @param c The input character.
+     * @return The folded character.
+     */
+    static char foldCase(final char c) {
+        if(c < 128) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Tests if two regions are equal ignoring case. Nothing is copied.
+     *
+     * @param value       The input value.
+     * @param offset      Start of the region in value.
+     * @param other       The other value.
+     * @param otherOffset Start of the region in other.
+     * @param length      Number of characters to compare.
+     * @return true if both regions exist and are equal ignoring case false otherwise.
+     */
+    static boolean regionMatchesIgnoreCase(final CharSequence value, final int offset, final CharSequence other, final int otherOffset, final int length) {
+        if(offset < 0 || otherOffset < 0 || offset > value.length() - length || otherOffset > other.length() - length) {
+            return false;
+        }
+        for(int i = 0; i < length; i++) {
+            char a = value.charAt(offset + i);
+            char b = other.charAt(otherOffset + i);
+            if(a != b && foldCase(a) != foldCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * String.indexOf(String, int) for any CharSequence. Nothing is copied.
+     *
+     * @param value         The input value.
+     * @param needle        The search value.
+     * @param from          The index to start searching from.
+     * @param caseSensitive whether search should be case sensitive.
+     * @return Position of the first occurrence of needle or -1.
+     */
+    static int indexOfSequence(final CharSequence value, final CharSequence needle, int from, final boolean caseSensitive) {
+        if(!caseSensitive) {
+            return indexOfIgnoreCase(value, needle, from);
+        }
+        if(value instanceof String && needle instanceof String) {
+            return ((String) value).indexOf((String) needle, from);
+        }
+        int length = value.length();
+        int needleLength = needle.length();
+        if(from < 0) {
+            from = 0;
+        }
+        if(needleLength == 0) {
+            return from <= length ? from : length;
+        }
+        char first = needle.charAt(0);
+        for(int i = from, max = length - needleLength; i <= max; i++) {
+            if(value.charAt(i) == first && regionMatches(value, i + 1, needle, 1, needleLength - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tests if two regions are equal. Nothing is copied.
+     *
+     * @param value       The input value.
+     * @param offset      Start of the region in value.
+     * @param other       The other value.
+     * @param otherOffset Start of the region in other.
+     * @param length      Number of characters to compare.
+     * @return true if both regions exist and are equal false otherwise.
+     */
+    static boolean regionMatches(final CharSequence value, final int offset, final CharSequence other, final int otherOffset, final int length) {
+        if(offset < 0 || otherOffset < 0 || offset > value.length() - length || otherOffset > other.length() - length) {
+            return false;
+        }
+        for(int i = 0; i < length; i++) {
+            if(value.charAt(offset + i) != other.charAt(otherOffset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests if c folds to first, where alternate is the ASCII upper case of first. ASCII characters are
+     * compared directly so that the scan for the first character of a needle rarely needs to fold.
+     */
+    private static boolean startsFolded(final char c, final char first, final char alternate) {
+        return c == first || c == alternate || (c >= 128 && foldCase(c) == first);
+    }
+
+    private static char upperAscii(final char c) {
+        return (c >= 'a' && c <= 'z') ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    /**
+     * Case insensitive version of String.indexOf(String, int). Nothing is copied.
+     *
+     * @param value  The input value.
+     * @param needle The search value.
+     * @param from   The index to start searching from.
+     * @return Position of the first occurrence of needle or -1.
+     */
+    static int indexOfIgnoreCase(final CharSequence value, final CharSequence needle, int from) {
+        int length = value.length();
+        int needleLength = needle.length();
+        if(from < 0) {
+            from = 0;
+        }
+        if(needleLength == 0) {
+            return from <= length ? from : length;
+        }
+        char first = foldCase(needle.charAt(0));
+        char alternate = upperAscii(first);
+        for(int i = from, max = length - needleLength; i <= max; i++) {
+            if(startsFolded(value.charAt(i), first, alternate) && regionMatchesIgnoreCase(value, i + 1, needle, 1, needleLength - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * String.lastIndexOf(String, int) for any CharSequence. Nothing is copied.
+     *
+     * @param value         The input value.
+     * @param needle        The search value.
+     * @param from          The index to start searching backwards from.
+     * @param caseSensitive whether search should be case sensitive.
+     * @return Position of the last occurrence of needle or -1.
+     */
+    static int lastIndexOfSequence(final CharSequence value, final CharSequence needle, int from, final boolean caseSensitive) {
+        if(!caseSensitive) {
+            return lastIndexOfIgnoreCase(value, needle, from);
+        }
+        if(value instanceof String && needle instanceof String) {
+            return ((String) value).lastIndexOf((String) needle, from);
+        }
+        int needleLength = needle.length();
+        int max = value.length() - needleLength;
+        if(from > max) {
+            from = max;
+        }
+        if(from < 0) {
+            return -1;
+        }
+        if(needleLength == 0) {
+            return from;
+        }
+        char first = needle.charAt(0);
+        for(int i = from; i >= 0; i--) {
+            if(value.charAt(i) == first && regionMatches(value, i + 1, needle, 1, needleLength - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Case insensitive version of String.lastIndexOf(String, int). Nothing is copied.
+     *
+     * @param value  The input value.
+     * @param needle The search value.
+     * @param from   The index to start searching backwards from.
+     * @return Position of the last occurrence of needle or -1.
+     */
+    static int lastIndexOfIgnoreCase(final CharSequence value, final CharSequence needle, int from) {
+        int needleLength = needle.length();
+        int max = value.length() - needleLength;
+        if(from > max) {
+            from = max;
+        }
+        if(from < 0) {
+            return -1;
+        }
+        if(needleLength == 0) {
+            return from;
+        }
+        char first = foldCase(needle.charAt(0));
+        char alternate = upperAscii(first);
+        for(int i = from; i >= 0; i--) {
+            if(startsFolded(value.charAt(i), first, alternate) && regionMatchesIgnoreCase(value, i + 1, needle, 1, needleLength - 1)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -732,8 +2423,8 @@ public abstract class SimpleString {
      * @return true if String is exist false otherwise
      *
      */
-    private static void isStringExist(final String value) {
-        if(value == null || value.equals("")) {
+    private static void isStringExist(final CharSequence value) {
+        if(value == null || value.length() == 0) {
             throw new IllegalArgumentException("value can't be null");
         }
     }
@@ -0,0 +1,451 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Optional instrumentation of the public SimpleString methods. It is disabled by default, and while it
+ * is disabled every method only pays for reading one volatile flag.
+ * <p>
+ * When enabled, every outermost call records its count, input length, latency and, on JVMs that
+ * support it, the bytes it allocated. Calls made by another SimpleString method are part of the outer
+ * call and are not recorded separately. Results are kept per method name, are published through JMX
+ * as {@value #OBJECT_NAME}, and are passed to the Listener if one is set.
+ * Histograms have one bucket per power of two, bucket i counts values v with 2^(i-1) &lt;= v &lt; 2^i.
+ * <p>
+ * A method can be given an allocation budget, the most bytes a single call may allocate. No method has
+ * one until setBudget is called. budgetViolations lists the methods that went over their budget, so
+ * that a test or a CI check running fixed inputs can fail on an allocation regression.
+ */
+
+public final class SimpleStringMetrics {
+
+    /**
+     * Name of the MXBean registered while metrics are enabled.
+     */
+    public static final String OBJECT_NAME = "SimpleString:type=Metrics";
+
+    /**
+     * Number of buckets in every histogram.
+     */
+    public static final int BUCKETS = 64;
+
+    private static final long DISABLED = -1L;
+    private static final long NESTED = -2L;
+
+    private static volatile boolean enabled;
+    private static volatile Listener listener;
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private static final ConcurrentMap<String, MethodStats> STATS = new ConcurrentHashMap<String, MethodStats>();
+    private static final ConcurrentMap<String, Long> BUDGETS = new ConcurrentHashMap<String, Long>();
+
+    // per thread: depth of SimpleString calls, and allocated bytes when the outermost call started
+    private static final ThreadLocal<long[]> FRAME = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[2];
+        }
+    };
+
+    private SimpleStringMetrics() {
+    }
+
+    /**
+     * Receives every recorded call, on the calling thread. Implementations must be fast and thread safe.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a SimpleString method returns or throws.
+         *
+         * @param method         The method name.
+         * @param inputLength    Length of the main input, -1 if it has none.
+         * @param nanos          Time spent in the call.
+         * @param allocatedBytes Bytes allocated by the call, -1 if the JVM can't measure it.
+         */
+        void onCall(String method, int inputLength, long nanos, long allocatedBytes);
+    }
+
+    /**
+     * Management interface published through JMX.
+     */
+    public interface SimpleStringMetricsMXBean {
+
+        boolean isEnabled();
+
+        void setEnabled(boolean enabled);
+
+        Map<String, Long> getCallCounts();
+
+        Map<String, Long> getTotalNanos();
+
+        Map<String, Long> getAllocatedBytes();
+
+        long[] getLatencyHistogram(String method);
+
+        long[] getInputLengthHistogram(String method);
+
+        Map<String, Long> getMaxAllocatedBytes();
+
+        Map<String, Long> getBudgetViolations();
+
+        void reset();
+    }
+
+    /**
+     * Start recording, and register the MXBean.
+     */
+    public static synchronized void enable() {
+        if(enabled) {
+            return;
+        }
+        enabled = true;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(!server.isRegistered(name)) {
+                server.registerMBean(new Bean(), name);
+            }
+        } catch(JMException e) {
+            throw new IllegalStateException("can't register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Stop recording, and unregister the MXBean. Recorded values are kept until reset.
+     */
+    public static synchronized void disable() {
+        if(!enabled) {
+            return;
+        }
+        enabled = false;
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if(server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch(JMException e) {
+            throw new IllegalStateException("can't unregister " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Whether calls are being recorded.
+     *
+     * @return true or false
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the Listener that receives every recorded call, null to remove it.
+     *
+     * @param callback The Listener.
+     */
+    public static void setListener(final Listener callback) {
+        listener = callback;
+    }
+
+    /**
+     * Number of recorded calls per method.
+     *
+     * @return method name to count, sorted by name.
+     */
+    public static Map<String, Long> callCounts() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for(Map.Entry<String, MethodStats> entry : STATS.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().calls.get());
+        }
+        return result;
+    }
+
+    /**
+     * Total time spent per method.
+     *
+     * @return method name to nanoseconds, sorted by name.
+     */
+    public static Map<String, Long> totalNanos() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for(Map.Entry<String, MethodStats> entry : STATS.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().nanos.get());
+        }
+        return result;
+    }
+
+    /**
+     * Bytes allocated per method, 0 for every method if the JVM can't measure it.
+     *
+     * @return method name to bytes, sorted by name.
+     */
+    public static Map<String, Long> allocatedBytes() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for(Map.Entry<String, MethodStats> entry : STATS.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().allocated.get());
+        }
+        return result;
+    }
+
+    /**
+     * Latency histogram of a method in nanoseconds.
+     *
+     * @param method The method name.
+     * @return BUCKETS counts, all 0 if the method was never recorded.
+     */
+    public static long[] latencyHistogram(final String method) {
+        MethodStats stats = STATS.get(method);
+        return stats == null ? new long[BUCKETS] : toArray(stats.latency);
+    }
+
+    /**
+     * Input length histogram of a method.
+     *
+     * @param method The method name.
+     * @return BUCKETS counts, all 0 if the method was never recorded.
+     */
+    public static long[] inputLengthHistogram(final String method) {
+        MethodStats stats = STATS.get(method);
+        return stats == null ? new long[BUCKETS] : toArray(stats.inputLength);
+    }
+
+    /**
+     * Most bytes allocated by a single call, per method, 0 for every method if the JVM can't measure it.
+     *
+     * @return method name to bytes, sorted by name.
+     */
+    public static Map<String, Long> maxAllocatedBytes() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for(Map.Entry<String, MethodStats> entry : STATS.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().maxAllocated.get());
+        }
+        return result;
+    }
+
+    /**
+     * Set the most bytes a single call of method may allocate.
+     *
+     * @param method The method name.
+     * @param bytes  The budget, -1 to remove it.
+     */
+    public static void setBudget(final String method, final long bytes) {
+        if(method == null) {
+            throw new IllegalArgumentException("method can't be null");
+        }
+        if(bytes < 0) {
+            BUDGETS.remove(method);
+        } else {
+            BUDGETS.put(method, bytes);
+        }
+    }
+
+    /**
+     * Allocation budget per method, set with setBudget.
+     *
+     * @return method name to bytes, sorted by name.
+     */
+    public static Map<String, Long> budgets() {
+        return new TreeMap<String, Long>(BUDGETS);
+    }
+
+    /**
+     * Methods that allocated more than their budget in a single call since the last reset.
+     *
+     * @return method name to the most bytes allocated by a single call, sorted by name, empty if every budget held.
+     */
+    public static Map<String, Long> budgetViolations() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for(Map.Entry<String, Long> budget : BUDGETS.entrySet()) {
+            MethodStats stats = STATS.get(budget.getKey());
+            long max = stats == null ? 0L : stats.maxAllocated.get();
+            if(max > budget.getValue()) {
+                result.put(budget.getKey(), max);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forget everything recorded so far. Budgets are kept.
+     */
+    public static void reset() {
+        STATS.clear();
+    }
+
+    /**
+     * Called first by every public SimpleString method.
+     *
+     * @return A token for exit.
+     */
+    static long enter() {
+        if(!enabled) {
+            return DISABLED;
+        }
+        long[] frame = FRAME.get();
+        if(frame[0]++ > 0) {
+            return NESTED;
+        }
+        frame[1] = allocatedBytes(Thread.currentThread());
+        return System.nanoTime();
+    }
+
+    /**
+     * Called last by every public SimpleString method, with the token returned by enter.
+     *
+     * @param token  The token returned by enter.
+     * @param method The method name.
+     * @param input  The main input, null if there is none.
+     */
+    static void exit(final long token, final String method, final CharSequence input) {
+        if(token == DISABLED) {
+            return;
+        }
+        long[] frame = FRAME.get();
+        frame[0]--;
+        if(token == NESTED) {
+            return;
+        }
+        long nanos = System.nanoTime() - token;
+        int length = input == null ? -1 : input.length();
+        long allocated = frame[1] < 0 ? -1L : allocatedBytes(Thread.currentThread()) - frame[1];
+        MethodStats stats = STATS.get(method);
+        if(stats == null) {
+            MethodStats created = new MethodStats();
+            stats = STATS.putIfAbsent(method, created);
+            if(stats == null) {
+                stats = created;
+            }
+        }
+        stats.record(length, nanos, allocated);
+        Listener callback = listener;
+        if(callback != null) {
+            callback.onCall(method, length, nanos, allocated);
+        }
+    }
+
+    private static int bucket(final long value) {
+        return value <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    private static long[] toArray(final AtomicLongArray array) {
+        long[] result = new long[array.length()];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = array.get(i);
+        }
+        return result;
+    }
+
+    private static final class MethodStats {
+
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong nanos = new AtomicLong();
+        final AtomicLong allocated = new AtomicLong();
+        final AtomicLong maxAllocated = new AtomicLong();
+        final AtomicLongArray latency = new AtomicLongArray(BUCKETS);
+        final AtomicLongArray inputLength = new AtomicLongArray(BUCKETS);
+
+        void record(final int length, final long time, final long bytes) {
+            calls.incrementAndGet();
+            nanos.addAndGet(time);
+            latency.incrementAndGet(bucket(time));
+            if(length >= 0) {
+                inputLength.incrementAndGet(bucket(length));
+            }
+            if(bytes > 0) {
+                allocated.addAndGet(bytes);
+                long max = maxAllocated.get();
+                while(bytes > max && !maxAllocated.compareAndSet(max, bytes)) {
+                    max = maxAllocated.get();
+                }
+            }
+        }
+    }
+
+    private static long allocatedBytes(final Thread thread) {
+        return THREADS == null ? -1L : THREADS.getThreadAllocatedBytes(thread.getId());
+    }
+
+    /**
+     * The per thread allocation counter of HotSpot, null on JVMs without one.
+     */
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if(bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads;
+                }
+            }
+        } catch(LinkageError e) {
+            // not a HotSpot JVM
+        }
+        return null;
+    }
+
+    private static final class Bean implements SimpleStringMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return SimpleStringMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(final boolean enabled) {
+            if(enabled) {
+                enable();
+            } else {
+                disable();
+            }
+        }
+
+        @Override
+        public Map<String, Long> getCallCounts() {
+            return callCounts();
+        }
+
+        @Override
+        public Map<String, Long> getTotalNanos() {
+            return totalNanos();
+        }
+
+        @Override
+        public Map<String, Long> getAllocatedBytes() {
+            return allocatedBytes();
+        }
+
+        @Override
+        public long[] getLatencyHistogram(final String method) {
+            return latencyHistogram(method);
+        }
+
+        @Override
+        public long[] getInputLengthHistogram(final String method) {
+            return inputLengthHistogram(method);
+        }
+
+        @Override
+        public Map<String, Long> getMaxAllocatedBytes() {
+            return maxAllocatedBytes();
+        }
+
+        @Override
+        public Map<String, Long> getBudgetViolations() {
+            return budgetViolations();
+        }
+
+        @Override
+        public void reset() {
+            SimpleStringMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Knuth-Morris-Pratt automaton, which never needs to look back at input it has already consumed.
+ * Feed it one character at a time, the state is the length of the needle prefix matched so far.
+ */
+
+final class StreamMatcher {
+
+    private final char[] needle;
+    private final int[] borders;
+    private final boolean caseSensitive;
+
+    StreamMatcher(final String needle, final boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        this.needle = new char[needle.length()];
+        for(int i = 0; i < needle.length(); i++) {
+            this.needle[i] = caseSensitive ? needle.charAt(i) : SimpleString.foldCase(needle.charAt(i));
+        }
+        this.borders = new int[needle.length()];
+        for(int i = 1, k = 0; i < this.needle.length; i++) {
+            while(k > 0 && this.needle[i] != this.needle[k]) {
+                k = borders[k - 1];
+            }
+            if(this.needle[i] == this.needle[k]) {
+                k++;
+            }
+            borders[i] = k;
+        }
+    }
+
+    int next(int state, final char c) {
+        char folded = caseSensitive ? c : SimpleString.foldCase(c);
+        while(state > 0 && needle[state] != folded) {
+            state = borders[state - 1];
+        }
+        return needle[state] == folded ? state + 1 : state;
+    }
+
+    int border(final int state) {
+        return borders[state - 1];
+    }
+}
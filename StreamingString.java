@@ -0,0 +1,388 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * Streaming versions of SimpleString methods for inputs too large to hold in a String.
+ * Input is read in fixed size chunks, matches spanning two chunks are found, and memory use does
+ * not depend on the size of the input. Streams are never closed by these methods.
+ * Files can be read through mappedReader, which maps one window of the file at a time.
+ */
+
+public abstract class StreamingString {
+
+    private static final int CHUNK = 8192;
+
+    // bytes of one (character, count) pair spilled by HeldRun
+    private static final int RUN_BYTES = 10;
+
+    /**
+     * Size of the file windows mapped by mappedReader.
+     */
+    static final int WINDOW = 64 * 1024 * 1024;
+
+    /**
+     * Streaming SimpleString.collapseWhitespace. Only a run of characters up to ' ' is held back,
+     * until it is known whether it is trailing. The run is kept run-length encoded, and spilled to
+     * a temporary file when it changes character too often to be kept in memory.
+     *
+     * @param in  The input.
+     * @param out The output.
+     * @throws IOException If reading or writing fails.
+     */
+    public static void collapseWhitespace(final Reader in, final Writer out) throws IOException {
+        char[] chunk = new char[CHUNK];
+        // the characters up to ' ' seen since the last character above ' ', with \s runs collapsed
+        HeldRun pending = new HeldRun();
+        boolean started = false;
+        int read;
+        try {
+            while((read = in.read(chunk)) != -1) {
+                int write = 0;
+                for(int i = 0; i < read; i++) {
+                    char c = chunk[i];
+                    if(c > ' ') {
+                        if(!pending.isEmpty()) {
+                            pending.writeTo(out);
+                        }
+                        started = true;
+                        continue;
+                    }
+                    out.write(chunk, write, i - write);
+                    write = i + 1;
+                    if(!started) {
+                        continue;
+                    }
+                    if(!SimpleString.isWhitespace(c)) {
+                        pending.append(c);
+                    } else if(pending.isEmpty() || pending.last() != ' ') {
+                        pending.append(' ');
+                    }
+                }
+                out.write(chunk, write, read - write);
+            }
+        } finally {
+            pending.clear();
+        }
+    }
+
+    /**
+     * Streaming SimpleString.removeNonWords.
+     *
+     * @param in  The input.
+     * @param out The output.
+     * @throws IOException If reading or writing fails.
+     */
+    public static void removeNonWords(final Reader in, final Writer out) throws IOException {
+        char[] chunk = new char[CHUNK];
+        int read;
+        while((read = in.read(chunk)) != -1) {
+            int write = 0;
+            for(int i = 0; i < read; i++) {
+                if(SimpleString.isWordChar(chunk[i])) {
+                    chunk[write++] = chunk[i];
+                }
+            }
+            out.write(chunk, 0, write);
+        }
+    }
+
+    /**
+     * Streaming SimpleString.replaceString. At most search.length() characters are held back while
+     * a possible match is pending.
+     *
+     * @param in            The input.
+     * @param out           The output.
+     * @param search        The search String, never a regular expression.
+     * @param newValue      The replacement.
+     * @param caseSensitive whether search should be case sensitive
+     * @throws IOException If reading or writing fails.
+     */
+    public static void replaceString(final Reader in, final Writer out, final String search, final String newValue, final boolean caseSensitive) throws IOException {
+        char[] chunk = new char[CHUNK];
+        int read;
+        if(search.isEmpty()) {
+            out.write(newValue);
+            while((read = in.read(chunk)) != -1) {
+                for(int i = 0; i < read; i++) {
+                    out.write(chunk[i]);
+                    out.write(newValue);
+                }
+            }
+            return;
+        }
+        StreamMatcher matcher = new StreamMatcher(search, caseSensitive);
+        // the last 'state' characters read, which may still turn out to be a match
+        StringBuilder pending = new StringBuilder(search.length());
+        int state = 0;
+        while((read = in.read(chunk)) != -1) {
+            for(int i = 0; i < read; i++) {
+                pending.append(chunk[i]);
+                state = matcher.next(state, chunk[i]);
+                if(state == search.length()) {
+                    out.write(newValue);
+                    pending.setLength(0);
+                    state = 0;
+                } else if(pending.length() > state) {
+                    int drop = pending.length() - state;
+                    out.append(pending, 0, drop);
+                    pending.delete(0, drop);
+                }
+            }
+        }
+        out.append(pending);
+    }
+
+    /**
+     * Streaming SimpleString.countSubstr.
+     *
+     * @param in               The input.
+     * @param subStr           input string to search
+     * @param caseSensitive    whether search should be case sensitive.
+     * @param allowOverlapping whether occurrences may overlap.
+     * @return count of times substring exists, 0 if subStr is empty.
+     * @throws IOException If reading fails.
+     */
+    public static long countSubstr(final Reader in, final String subStr, final boolean caseSensitive, final boolean allowOverlapping) throws IOException {
+        if(subStr.isEmpty()) {
+            return 0L;
+        }
+        StreamMatcher matcher = new StreamMatcher(subStr, caseSensitive);
+        char[] chunk = new char[CHUNK];
+        long count = 0L;
+        int state = 0;
+        int read;
+        while((read = in.read(chunk)) != -1) {
+            for(int i = 0; i < read; i++) {
+                state = matcher.next(state, chunk[i]);
+                if(state == subStr.length()) {
+                    count++;
+                    state = allowOverlapping ? matcher.border(state) : 0;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Streaming SimpleString.contains. Reading stops at the first match.
+     *
+     * @param in            The input.
+     * @param needle        needle to find
+     * @param caseSensitive true or false
+     * @return true if found else false.
+     * @throws IOException If reading fails.
+     */
+    public static boolean contains(final Reader in, final String needle, final boolean caseSensitive) throws IOException {
+        if(needle.isEmpty()) {
+            return true;
+        }
+        StreamMatcher matcher = new StreamMatcher(needle, caseSensitive);
+        char[] chunk = new char[CHUNK];
+        int state = 0;
+        int read;
+        while((read = in.read(chunk)) != -1) {
+            for(int i = 0; i < read; i++) {
+                state = matcher.next(state, chunk[i]);
+                if(state == needle.length()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a Reader over a region of a file that maps the file one window at a time instead of
+     * reading it through the heap. Malformed input is replaced, as new String(bytes, charset) does.
+     *
+     * @param channel  The file.
+     * @param position Start of the region.
+     * @param size     Size of the region in bytes.
+     * @param charset  Encoding of the file.
+     * @return The Reader.
+     */
+    public static Reader mappedReader(final FileChannel channel, final long position, final long size, final Charset charset) {
+        if(channel == null || charset == null) {
+            throw new IllegalArgumentException("channel and charset can't be null");
+        }
+        if(position < 0 || size < 0) {
+            throw new IllegalArgumentException("position and size can't be negative");
+        }
+        return new MappedReader(channel, position, position + size, charset);
+    }
+
+    /**
+     * A run of characters held back by collapseWhitespace, as (character, count) pairs. The latest
+     * RUNS pairs are kept in memory, older ones are spilled to a temporary file, so memory use is
+     * bounded however long the run is.
+     */
+    private static final class HeldRun {
+
+        private static final int RUNS = 1024;
+
+        private final char[] chars = new char[RUNS];
+        private final long[] counts = new long[RUNS];
+        private int runs;
+        private File spill;
+        private DataOutputStream spilled;
+
+        boolean isEmpty() {
+            return runs == 0 && spill == null;
+        }
+
+        char last() {
+            return chars[runs - 1];
+        }
+
+        void append(final char c) throws IOException {
+            if(runs > 0 && chars[runs - 1] == c) {
+                counts[runs - 1]++;
+                return;
+            }
+            if(runs == RUNS) {
+                spill();
+            }
+            chars[runs] = c;
+            counts[runs++] = 1L;
+        }
+
+        void writeTo(final Writer out) throws IOException {
+            char[] buffer = new char[CHUNK];
+            if(spill != null) {
+                spilled.close();
+                DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(spill)));
+                try {
+                    for(long n = spill.length() / RUN_BYTES; n > 0; n--) {
+                        write(out, buffer, in.readChar(), in.readLong());
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+            for(int i = 0; i < runs; i++) {
+                write(out, buffer, chars[i], counts[i]);
+            }
+            clear();
+        }
+
+        void clear() throws IOException {
+            runs = 0;
+            if(spill != null) {
+                spilled.close();
+                if(!spill.delete()) {
+                    spill.deleteOnExit();
+                }
+                spill = null;
+                spilled = null;
+            }
+        }
+
+        private void spill() throws IOException {
+            if(spill == null) {
+                spill = File.createTempFile("collapseWhitespace", ".runs");
+                spilled = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spill)));
+            }
+            for(int i = 0; i < runs; i++) {
+                spilled.writeChar(chars[i]);
+                spilled.writeLong(counts[i]);
+            }
+            // the last run stays in memory so that last() and append keep working
+            chars[0] = chars[runs - 1];
+            counts[0] = 0L;
+            runs = 1;
+        }
+
+        private static void write(final Writer out, final char[] buffer, final char c, long count) throws IOException {
+            Arrays.fill(buffer, 0, (int) Math.min(count, buffer.length), c);
+            while(count > 0) {
+                int n = (int) Math.min(count, buffer.length);
+                out.write(buffer, 0, n);
+                count -= n;
+            }
+        }
+    }
+
+    private static final class MappedReader extends Reader {
+
+        private final FileChannel channel;
+        private final long end;
+        private final CharsetDecoder decoder;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private boolean flushed;
+
+        MappedReader(final FileChannel channel, final long position, final long end, final Charset charset) {
+            this.channel = channel;
+            this.windowStart = position;
+            this.end = end;
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        @Override
+        public int read(final char[] buffer, final int offset, final int length) throws IOException {
+            if(length == 0) {
+                return 0;
+            }
+            if(flushed) {
+                return -1;
+            }
+            if(window == null) {
+                map(windowStart);
+            }
+            CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+            while(out.position() == offset) {
+                boolean last = windowStart + window.limit() >= end;
+                CoderResult result = decoder.decode(window, out, last);
+                if(result.isError()) {
+                    result.throwException();
+                }
+                if(result.isOverflow()) {
+                    break;
+                }
+                if(!last) {
+                    // a character split over two windows starts the next window
+                    map(windowStart + window.position());
+                    continue;
+                }
+                if(!flushed) {
+                    if(decoder.flush(out).isOverflow()) {
+                        break;
+                    }
+                    flushed = true;
+                }
+                if(out.position() == offset) {
+                    return -1;
+                }
+            }
+            return out.position() - offset;
+        }
+
+        private void map(final long from) throws IOException {
+            windowStart = from;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(WINDOW, end - from));
+        }
+
+        @Override
+        public void close() {
+            window = null;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An opt-in cache for pure SimpleString transformations that are called again and again with the same
+ * input. Results are kept in least recently used order in 16 independently locked segments, and the
+ * estimated size of keys and results never exceeds the byte budget given to create.
+ * <pre>
+ * StringCache cache = StringCache.create(16 * 1024 * 1024);
+ * cache.collapseWhitespace(header);
+ * </pre>
+ * Instances are thread safe. A result that is computed by two threads at once is computed twice and
+ * stored once.
+ */
+
+public final class StringCache {
+
+    private static final int SEGMENTS = 16;
+
+    /**
+     * Estimated bytes of an entry on top of its characters: entry, key and two String headers.
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private static final int COLLAPSE_WHITESPACE = 0;
+    private static final int REMOVE_NON_WORDS = 1;
+    private static final int SAFE_TRUNCATE = 2;
+    private static final int REPLACE_STRING = 3;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long maxBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private StringCache(final long maxBytes) {
+        this.maxBytes = maxBytes;
+        for(int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(maxBytes / SEGMENTS);
+        }
+    }
+
+    /**
+     * Create a cache holding at most maxBytes of keys and results, as estimated from their lengths.
+     *
+     * @param maxBytes The byte budget.
+     * @return The cache.
+     */
+    public static StringCache create(final long maxBytes) {
+        if(maxBytes < SEGMENTS * ENTRY_OVERHEAD) {
+            throw new IllegalArgumentException("maxBytes must be at least " + SEGMENTS * ENTRY_OVERHEAD);
+        }
+        return new StringCache(maxBytes);
+    }
+
+    /**
+     * Cached SimpleString.collapseWhitespace.
+     *
+     * @param value input String
+     * @return      collapsed String
+     */
+    public String collapseWhitespace(final String value) {
+        if(value == null) {
+            return SimpleString.collapseWhitespace(null);
+        }
+        Key key = new Key(COLLAPSE_WHITESPACE, value, null, null, 0, false);
+        String result = get(key);
+        return result != null ? result : put(key, SimpleString.collapseWhitespace(value));
+    }
+
+    /**
+     * Cached SimpleString.removeNonWords.
+     *
+     * @param value The input String
+     * @return String without non-word characters.
+     */
+    public String removeNonWords(final String value) {
+        if(value == null) {
+            return SimpleString.removeNonWords(null);
+        }
+        Key key = new Key(REMOVE_NON_WORDS, value, null, null, 0, false);
+        String result = get(key);
+        return result != null ? result : put(key, SimpleString.removeNonWords(value));
+    }
+
+    /**
+     * Cached SimpleString.safeTruncate.
+     *
+     * @param value  The input String.
+     * @param length Max size of the truncated String.
+     * @param filler String that will be added to the end of the return string.
+     * @return The truncated String
+     */
+    public String safeTruncate(final String value, final int length, final String filler) {
+        if(value == null || filler == null) {
+            return SimpleString.safeTruncate(value, length, filler);
+        }
+        Key key = new Key(SAFE_TRUNCATE, value, filler, null, length, false);
+        String result = get(key);
+        return result != null ? result : put(key, SimpleString.safeTruncate(value, length, filler));
+    }
+
+    /**
+     * Cached SimpleString.replaceString.
+     *
+     * @param value         The input String.
+     * @param search        The search String.
+     * @param newValue      The replacement.
+     * @param caseSensitive whether search should be case sensitive
+     * @return String replaced with 'newvalue'.
+     */
+    public String replaceString(final String value, final String search, final String newValue, final boolean caseSensitive) {
+        if(value == null || search == null || newValue == null) {
+            return SimpleString.replaceString(value, search, newValue, caseSensitive);
+        }
+        Key key = new Key(REPLACE_STRING, value, search, newValue, 0, caseSensitive);
+        String result = get(key);
+        return result != null ? result : put(key, SimpleString.replaceString(value, search, newValue, caseSensitive));
+    }
+
+    /**
+     * Number of calls answered from the cache.
+     *
+     * @return The hit count.
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Number of calls that had to compute their result.
+     *
+     * @return The miss count.
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Number of entries evicted to stay within the byte budget.
+     *
+     * @return The eviction count.
+     */
+    public long evictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Share of calls answered from the cache.
+     *
+     * @return hits / (hits + misses), 0 if there was no call.
+     */
+    public double hitRate() {
+        long hit = hits.get();
+        long total = hit + misses.get();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    /**
+     * Number of cached results.
+     *
+     * @return The entry count.
+     */
+    public int size() {
+        int size = 0;
+        for(Segment segment : segments) {
+            synchronized(segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Estimated bytes held by the cache.
+     *
+     * @return The estimated size.
+     */
+    public long bytes() {
+        long bytes = 0;
+        for(Segment segment : segments) {
+            synchronized(segment) {
+                bytes += segment.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * The byte budget given to create.
+     *
+     * @return The maximum estimated size.
+     */
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Remove every cached result. Statistics are kept.
+     */
+    public void clear() {
+        for(Segment segment : segments) {
+            synchronized(segment) {
+                segment.clear();
+                segment.bytes = 0;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StringCache{size=" + size() + ", bytes=" + bytes() + ", maxBytes=" + maxBytes
+                + ", hits=" + hits() + ", misses=" + misses() + ", evictions=" + evictions() + "}";
+    }
+
+    private String get(final Key key) {
+        Segment segment = segmentFor(key);
+        String result;
+        synchronized(segment) {
+            result = segment.get(key);
+        }
+        (result == null ? misses : hits).incrementAndGet();
+        return result;
+    }
+
+    private String put(final Key key, final String result) {
+        long size = key.bytes() + 2L * result.length();
+        Segment segment = segmentFor(key);
+        if(size > segment.maxBytes) {
+            return result;
+        }
+        synchronized(segment) {
+            String previous = segment.put(key, result);
+            if(previous != null) {
+                segment.bytes -= key.bytes() + 2L * previous.length();
+            }
+            segment.bytes += size;
+            Iterator<Map.Entry<Key, String>> eldest = segment.entrySet().iterator();
+            while(segment.bytes > segment.maxBytes && eldest.hasNext()) {
+                Map.Entry<Key, String> entry = eldest.next();
+                segment.bytes -= entry.getKey().bytes() + 2L * entry.getValue().length();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        return result;
+    }
+
+    private Segment segmentFor(final Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Segment extends LinkedHashMap<Key, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        final long maxBytes;
+        long bytes;
+
+        Segment(final long maxBytes) {
+            super(16, 0.75f, true);
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    private static final class Key {
+
+        private final int operation;
+        private final String value;
+        private final String first;
+        private final String second;
+        private final int number;
+        private final boolean flag;
+        private final int hash;
+
+        Key(final int operation, final String value, final String first, final String second, final int number, final boolean flag) {
+            this.operation = operation;
+            this.value = value;
+            this.first = first;
+            this.second = second;
+            this.number = number;
+            this.flag = flag;
+            int h = operation;
+            h = 31 * h + value.hashCode();
+            h = 31 * h + (first == null ? 0 : first.hashCode());
+            h = 31 * h + (second == null ? 0 : second.hashCode());
+            h = 31 * h + number;
+            this.hash = 31 * h + (flag ? 1 : 0);
+        }
+
+        long bytes() {
+            return ENTRY_OVERHEAD + 2L * (value.length()
+                    + (first == null ? 0 : first.length())
+                    + (second == null ? 0 : second.length()));
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if(!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hash == key.hash && operation == key.operation && number == key.number && flag == key.flag
+                    && value.equals(key.value) && equal(first, key.first) && equal(second, key.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        private static boolean equal(final String a, final String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+}
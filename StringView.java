@@ -0,0 +1,140 @@
+/**
+ * A read only window on a String. Creating or slicing a view never copies characters, the
+ * characters are only copied when toString() is called.
+ * Instances are immutable and can be shared between threads.
+ */
+
+public final class StringView implements CharSequence {
+
+    private final String source;
+    private final int offset;
+    private final int length;
+
+    private StringView(final String source, final int offset, final int length) {
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns a view on the characters of source between begin (inclusive) and end (exclusive).
+     *
+     * @param source The backing String.
+     * @param begin  Start of the view.
+     * @param end    End of the view.
+     * @return The view.
+     */
+    public static StringView of(final String source, final int begin, final int end) {
+        if(source == null) {
+            throw new IllegalArgumentException("source can't be null");
+        }
+        checkRange(begin, end, source.length());
+        return new StringView(source, begin, end - begin);
+    }
+
+    /**
+     * Returns a view on the whole source.
+     *
+     * @param source The backing String.
+     * @return The view.
+     */
+    public static StringView of(final String source) {
+        return of(source, 0, source == null ? 0 : source.length());
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if(index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return source.charAt(offset + index);
+    }
+
+    /**
+     * Returns a view on a part of this view. Nothing is copied.
+     *
+     * @param begin Start of the slice.
+     * @param end   End of the slice.
+     * @return The sliced view.
+     */
+    @Override
+    public StringView subSequence(final int begin, final int end) {
+        checkRange(begin, end, length);
+        return new StringView(source, offset + begin, end - begin);
+    }
+
+    /**
+     * Returns the start of this view in the backing String.
+     *
+     * @return The offset.
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Returns the backing String.
+     *
+     * @return The source.
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * Tests if this view has no characters.
+     *
+     * @return true if length is 0 false otherwise.
+     */
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Tests if the characters of this view equal the characters of value.
+     *
+     * @param value The CharSequence to compare against.
+     * @return true if they are equal false otherwise.
+     */
+    public boolean contentEquals(final CharSequence value) {
+        return value != null && value.length() == length && SimpleString.regionMatches(this, 0, value, 0, length);
+    }
+
+    /**
+     * Copies the characters of this view into a new String.
+     *
+     * @return The String.
+     */
+    @Override
+    public String toString() {
+        return source.substring(offset, offset + length);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return other == this || (other instanceof StringView && contentEquals((StringView) other));
+    }
+
+    /**
+     * Same hash code as the String with the characters of this view.
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for(int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash;
+    }
+
+    private static void checkRange(final int begin, final int end, final int length) {
+        if(begin < 0 || end > length || begin > end) {
+            throw new StringIndexOutOfBoundsException("begin " + begin + ", end " + end + ", length " + length);
+        }
+    }
+}
@@ -0,0 +1,468 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * SimpleString methods over UTF-8 encoded bytes, so that payloads don't need to be decoded into a
+ * String first. The bytes between position and limit of a ByteBuffer are used, and neither is moved.
+ * Pure ASCII input is compared byte by byte, other input is decoded one character at a time as it is
+ * scanned. Malformed input is read as new String(bytes, "UTF-8") does: every maximal prefix of a
+ * sequence that can't be completed becomes one U+FFFD, so a needle holding U+FFFD finds it.
+ */
+
+public abstract class Utf8String {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    /**
+     * Verifies that the needle is contained in the UTF-8 encoded value.
+     *
+     * @param value         UTF-8 encoded input to search
+     * @param needle        needle to find
+     * @param caseSensitive true or false
+     * @return true if found else false.
+     */
+    public static boolean contains(final byte[] value, final String needle, final boolean caseSensitive) {
+        return contains(wrap(value), needle, caseSensitive);
+    }
+
+    /**
+     * Verifies that the needle is contained in the UTF-8 encoded value.
+     *
+     * @param value         UTF-8 encoded input to search
+     * @param needle        needle to find
+     * @param caseSensitive true or false
+     * @return true if found else false.
+     */
+    public static boolean contains(final ByteBuffer value, final String needle, final boolean caseSensitive) {
+        checkValue(value);
+        if(needle.isEmpty()) {
+            return true;
+        }
+        if(caseSensitive && !needsDecoding(needle)) {
+            return indexOf(value, needle.getBytes(UTF_8), value.position(), false) != -1;
+        }
+        if(!caseSensitive && isAscii(needle) && isAscii(value)) {
+            return indexOf(value, foldedAscii(needle), value.position(), true) != -1;
+        }
+        return count(value, needle, caseSensitive, false, true) > 0;
+    }
+
+    /**
+     * Count the number of times subStr appears in the UTF-8 encoded value.
+     *
+     * @param value            UTF-8 encoded input
+     * @param subStr           input string to search
+     * @param caseSensitive    whether search should be case sensitive.
+     * @param allowOverlapping whether occurrences may overlap.
+     * @return count of times substring exists, 0 if subStr is empty.
+     */
+    public static long countSubstr(final byte[] value, final String subStr, final boolean caseSensitive, final boolean allowOverlapping) {
+        return countSubstr(wrap(value), subStr, caseSensitive, allowOverlapping);
+    }
+
+    /**
+     * Count the number of times subStr appears in the UTF-8 encoded value.
+     *
+     * @param value            UTF-8 encoded input
+     * @param subStr           input string to search
+     * @param caseSensitive    whether search should be case sensitive.
+     * @param allowOverlapping whether occurrences may overlap.
+     * @return count of times substring exists, 0 if subStr is empty.
+     */
+    public static long countSubstr(final ByteBuffer value, final String subStr, final boolean caseSensitive, final boolean allowOverlapping) {
+        if(value == null) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+        if(subStr.isEmpty()) {
+            return 0L;
+        }
+        byte[] bytes;
+        if(caseSensitive && !needsDecoding(subStr)) {
+            bytes = subStr.getBytes(UTF_8);
+        } else if(!caseSensitive && isAscii(subStr) && isAscii(value)) {
+            bytes = foldedAscii(subStr);
+        } else {
+            return count(value, subStr, caseSensitive, allowOverlapping, false);
+        }
+        int step = allowOverlapping ? 1 : bytes.length;
+        long count = 0L;
+        int position = indexOf(value, bytes, value.position(), !caseSensitive);
+        while(position != -1) {
+            count++;
+            position = indexOf(value, bytes, position + step, !caseSensitive);
+        }
+        return count;
+    }
+
+    /**
+     * Test if the UTF-8 encoded value ends with search.
+     *
+     * @param value         UTF-8 encoded input
+     * @param search        string to search
+     * @param caseSensitive true or false
+     * @return true or false
+     */
+    public static boolean endsWith(final byte[] value, final String search, final boolean caseSensitive) {
+        return endsWith(wrap(value), search, caseSensitive);
+    }
+
+    /**
+     * Test if the UTF-8 encoded value ends with search.
+     *
+     * @param value         UTF-8 encoded input
+     * @param search        string to search
+     * @param caseSensitive true or false
+     * @return true or false
+     */
+    public static boolean endsWith(final ByteBuffer value, final String search, final boolean caseSensitive) {
+        checkValue(value);
+        if(caseSensitive ? !needsDecoding(search) : isAscii(search)) {
+            byte[] bytes = caseSensitive ? search.getBytes(UTF_8) : foldedAscii(search);
+            int offset = value.limit() - bytes.length;
+            if(offset < value.position()) {
+                return false;
+            }
+            if(caseSensitive || isAscii(value, offset, value.limit())) {
+                return regionMatches(value, offset, bytes, !caseSensitive);
+            }
+        }
+        // step back over as many characters as search has, then compare forwards. Decoding always
+        // restarts at a byte that is not a continuation byte, so the steps go from one to the next
+        int units = 0;
+        int start = value.limit();
+        while(units < search.length() && start > value.position()) {
+            int lead = start - 1;
+            while(lead > value.position() && isContinuation(value.get(lead))) {
+                lead--;
+            }
+            for(int i = lead; i < start; i += sequenceLength(value, i, value.limit())) {
+                units += Character.charCount(codePoint(value, i, value.limit()));
+            }
+            start = lead;
+        }
+        if(units < search.length()) {
+            return false;
+        }
+        int index = -(units - search.length());
+        for(int i = start; i < value.limit(); ) {
+            int length = sequenceLength(value, i, value.limit());
+            int codePoint = codePoint(value, i, value.limit());
+            i += length;
+            if(codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                if(index >= 0 && !equals((char) codePoint, search.charAt(index), caseSensitive)) {
+                    return false;
+                }
+                index++;
+                continue;
+            }
+            if(index >= 0 && !equals(Character.highSurrogate(codePoint), search.charAt(index), caseSensitive)) {
+                return false;
+            }
+            index++;
+            if(index >= 0 && !equals(Character.lowSurrogate(codePoint), search.charAt(index), caseSensitive)) {
+                return false;
+            }
+            index++;
+        }
+        return true;
+    }
+
+    /**
+     * Verifies if the UTF-8 encoded value is uppercase.
+     *
+     * @param value UTF-8 encoded input
+     * @return true if value is uppercase false otherwise.
+     */
+    public static boolean isUpperCase(final byte[] value) {
+        return isUpperCase(wrap(value));
+    }
+
+    /**
+     * Verifies if the UTF-8 encoded value is uppercase.
+     *
+     * @param value UTF-8 encoded input
+     * @return true if value is uppercase false otherwise.
+     */
+    public static boolean isUpperCase(final ByteBuffer value) {
+        return lacksCase(value, false);
+    }
+
+    /**
+     * Verifies if the UTF-8 encoded value is lower case.
+     *
+     * @param value UTF-8 encoded input
+     * @return true if value is lowercase false otherwise.
+     */
+    public static boolean isLowerCase(final byte[] value) {
+        return isLowerCase(wrap(value));
+    }
+
+    /**
+     * Verifies if the UTF-8 encoded value is lower case.
+     *
+     * @param value UTF-8 encoded input
+     * @return true if value is lowercase false otherwise.
+     */
+    public static boolean isLowerCase(final ByteBuffer value) {
+        return lacksCase(value, true);
+    }
+
+    /**
+     * Remove all spaces from the UTF-8 encoded value. The spaces are ASCII, and ASCII bytes never
+     * occur inside a multi byte sequence, so nothing needs to be decoded.
+     *
+     * @param value UTF-8 encoded input
+     * @return value itself if it has no spaces, a new array without spaces otherwise.
+     */
+    public static byte[] removeSpaces(final byte[] value) {
+        checkValue(wrap(value));
+        int spaces = 0;
+        for(byte b : value) {
+            if(isSpace(b)) {
+                spaces++;
+            }
+        }
+        if(spaces == 0) {
+            return value;
+        }
+        byte[] result = new byte[value.length - spaces];
+        int write = 0;
+        for(byte b : value) {
+            if(!isSpace(b)) {
+                result[write++] = b;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove all spaces from the UTF-8 encoded value.
+     *
+     * @param value UTF-8 encoded input
+     * @return value itself if it has no spaces, a new buffer without spaces otherwise.
+     */
+    public static ByteBuffer removeSpaces(final ByteBuffer value) {
+        checkValue(value);
+        int i = value.position();
+        while(i < value.limit() && !isSpace(value.get(i))) {
+            i++;
+        }
+        if(i == value.limit()) {
+            return value;
+        }
+        ByteBuffer result = ByteBuffer.allocate(value.remaining());
+        for(int j = value.position(); j < value.limit(); j++) {
+            byte b = value.get(j);
+            if(!isSpace(b)) {
+                result.put(b);
+            }
+        }
+        result.flip();
+        return result;
+    }
+
+    /**
+     * Tests that value has no upper case character if upper, no lower case character otherwise.
+     */
+    private static boolean lacksCase(final ByteBuffer value, final boolean upper) {
+        checkValue(value);
+        for(int i = value.position(); i < value.limit(); ) {
+            byte b = value.get(i);
+            if(b >= 0) {
+                if(upper ? (b >= 'A' && b <= 'Z') : (b >= 'a' && b <= 'z')) {
+                    return false;
+                }
+                i++;
+                continue;
+            }
+            int codePoint = codePoint(value, i, value.limit());
+            i += sequenceLength(value, i, value.limit());
+            // String checks chars, and surrogates are neither upper nor lower case
+            if(codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT
+                    && (upper ? Character.isUpperCase((char) codePoint) : Character.isLowerCase((char) codePoint))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Feeds the decoded characters of value through a StreamMatcher.
+     */
+    private static long count(final ByteBuffer value, final String needle, final boolean caseSensitive, final boolean allowOverlapping, final boolean stopAtFirst) {
+        StreamMatcher matcher = new StreamMatcher(needle, caseSensitive);
+        long count = 0L;
+        int state = 0;
+        for(int i = value.position(); i < value.limit(); ) {
+            int codePoint = codePoint(value, i, value.limit());
+            i += sequenceLength(value, i, value.limit());
+            boolean supplementary = codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT;
+            for(int unit = 0; unit < (supplementary ? 2 : 1); unit++) {
+                char c = !supplementary ? (char) codePoint : unit == 0 ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+                state = matcher.next(state, c);
+                if(state == needle.length()) {
+                    if(stopAtFirst) {
+                        return 1L;
+                    }
+                    count++;
+                    state = allowOverlapping ? matcher.border(state) : 0;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int indexOf(final ByteBuffer value, final byte[] needle, final int from, final boolean foldAscii) {
+        byte first = needle[0];
+        for(int i = from, max = value.limit() - needle.length; i <= max; i++) {
+            byte b = value.get(i);
+            if((b == first || (foldAscii && foldAscii(b) == first)) && regionMatches(value, i, needle, foldAscii)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(final ByteBuffer value, final int offset, final byte[] bytes, final boolean foldAscii) {
+        for(int i = 0; i < bytes.length; i++) {
+            byte b = value.get(offset + i);
+            if(b != bytes[i] && !(foldAscii && foldAscii(b) == bytes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Length of the UTF-8 sequence at index. For a malformed sequence, the length of its longest
+     * prefix that could still be completed, at least 1.
+     */
+    private static int sequenceLength(final ByteBuffer value, final int index, final int limit) {
+        int lead = value.get(index) & 0xFF;
+        int length = expectedLength(lead);
+        if(length <= 1 || index + 1 >= limit) {
+            return 1;
+        }
+        int second = value.get(index + 1) & 0xFF;
+        // like String, ED A0 to ED BF start a sequence, which is malformed as a whole if completed
+        int min = lead == 0xE0 ? 0xA0 : lead == 0xF0 ? 0x90 : 0x80;
+        int max = lead == 0xF4 ? 0x8F : 0xBF;
+        if(second < min || second > max) {
+            return 1;
+        }
+        for(int i = 2; i < length; i++) {
+            if(index + i >= limit || !isContinuation(value.get(index + i))) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Length of the sequence a lead byte starts, 0 if it can't start one.
+     */
+    private static int expectedLength(final int lead) {
+        if(lead < 0x80) {
+            return 1;
+        }
+        if(lead >= 0xC2 && lead <= 0xDF) {
+            return 2;
+        }
+        if(lead >= 0xE0 && lead <= 0xEF) {
+            return 3;
+        }
+        return lead >= 0xF0 && lead <= 0xF4 ? 4 : 0;
+    }
+
+    /**
+     * Code point of the UTF-8 sequence at index, U+FFFD for a malformed sequence.
+     */
+    private static int codePoint(final ByteBuffer value, final int index, final int limit) {
+        int lead = value.get(index) & 0xFF;
+        if(lead < 0x80) {
+            return lead;
+        }
+        int length = sequenceLength(value, index, limit);
+        if(length != expectedLength(lead)) {
+            return REPLACEMENT;
+        }
+        int codePoint = lead & (0xFF >> (length + 1));
+        for(int i = 1; i < length; i++) {
+            codePoint = (codePoint << 6) | (value.get(index + i) & 0x3F);
+        }
+        return Character.isSurrogate((char) codePoint) && codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT ? REPLACEMENT : codePoint;
+    }
+
+    private static boolean isContinuation(final byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    private static boolean isSpace(final byte b) {
+        return b >= 0 && SimpleString.isWhitespace((char) b);
+    }
+
+    private static byte foldAscii(final byte b) {
+        return (b >= 'A' && b <= 'Z') ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static boolean equals(final char a, final char b, final boolean caseSensitive) {
+        return a == b || (!caseSensitive && SimpleString.foldCase(a) == SimpleString.foldCase(b));
+    }
+
+    /**
+     * Whether value holds a character that input can decode to without holding its UTF-8 bytes: U+FFFD,
+     * which malformed input decodes to, or half of a surrogate pair, which getBytes turns into '?'.
+     */
+    private static boolean needsDecoding(final String value) {
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if(c == REPLACEMENT || (Character.isSurrogate(c) && !(Character.isHighSurrogate(c)
+                    && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(++i))))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] foldedAscii(final String value) {
+        byte[] bytes = new byte[value.length()];
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) SimpleString.foldCase(value.charAt(i));
+        }
+        return bytes;
+    }
+
+    private static boolean isAscii(final String value) {
+        for(int i = 0; i < value.length(); i++) {
+            if(value.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(final ByteBuffer value) {
+        return isAscii(value, value.position(), value.limit());
+    }
+
+    private static boolean isAscii(final ByteBuffer value, final int from, final int to) {
+        for(int i = from; i < to; i++) {
+            if(value.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuffer wrap(final byte[] value) {
+        return value == null ? null : ByteBuffer.wrap(value);
+    }
+
+    private static void checkValue(final ByteBuffer value) {
+        if(value == null || !value.hasRemaining()) {
+            throw new IllegalArgumentException("value can't be null");
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package simplestring;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * One benchmark per public method of SimpleString, measured as calls per millisecond on every size
+ * of input, a sentence, about 1 KB and about 64 KB of text, crossed with its characters, ASCII only
+ * or with non-ASCII letters and a surrogate pair. Methods with a caseSensitive flag are measured
+ * both ways. Run with -prof gc to see the allocation rate next to the throughput.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimpleStringBenchmark {
+
+    private static final String ASCII = "The quick brown Fox jumps over the lazy Dog, musenboy";
+    private static final String NON_ASCII = "Grüße aus Köln, Αθήνα und "
+            + "Москва 😀 Été musenboy";
+    private static final int MEDIUM = 1 << 10;
+    private static final int LARGE = 1 << 16;
+    private static final String[] PARTS = {"mu", "sen", "boy"};
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    @Param({"ascii", "nonascii"})
+    public String charset;
+
+    private String value;
+    private String copy;
+    private String upper;
+    private String lower;
+    private String needle;
+    private String prefix;
+    private String suffix;
+    private Replacer replacer;
+    private Replacer caseSensitiveReplacer;
+    private int middle;
+
+    /**
+     * The caseSensitive flag, a separate state so that only the methods taking it are run both ways.
+     */
+    @State(Scope.Thread)
+    public static class Case {
+
+        @Param({"true", "false"})
+        public boolean caseSensitive;
+    }
+
+    @Setup
+    public void setUp() {
+        String sentence = "ascii".equals(charset) ? ASCII : NON_ASCII;
+        int length = "large".equals(size) ? LARGE : "medium".equals(size) ? MEDIUM : 0;
+        StringBuilder builder = new StringBuilder(length + sentence.length());
+        builder.append(sentence);
+        while(builder.length() < length) {
+            builder.append(' ').append(sentence);
+        }
+        value = builder.toString();
+        copy = new String(value.toCharArray());
+        upper = value.toUpperCase(Locale.ROOT);
+        lower = value.toLowerCase(Locale.ROOT);
+        middle = value.length() / 2;
+        needle = value.substring(value.length() - 8, value.length() - 4);
+        prefix = value.substring(0, 4);
+        suffix = value.substring(value.length() - 4);
+        Map<String, String> replacements = new HashMap<String, String>();
+        replacements.put(needle, "X");
+        replacements.put("o", "0");
+        replacer = Replacer.compile(replacements, false);
+        caseSensitiveReplacer = Replacer.compile(replacements, true);
+    }
+
+    @Benchmark
+    public String appendString() {
+        return SimpleString.appendString(value, "mu", "sen", "boy");
+    }
+
+    @Benchmark
+    public String appendArray() {
+        return SimpleString.appendArray(value, PARTS);
+    }
+
+    @Benchmark
+    public StringBuilder appendTo() {
+        return SimpleString.appendTo(new StringBuilder(), value, "mu", "sen", "boy");
+    }
+
+    @Benchmark
+    public String charAtIndex() {
+        return SimpleString.charAtIndex(value, -middle);
+    }
+
+    @Benchmark
+    public String codePointAtIndex() {
+        return SimpleString.codePointAtIndex(value, middle);
+    }
+
+    @Benchmark
+    public String[] stringToArray() {
+        return SimpleString.stringToArray(value);
+    }
+
+    @Benchmark
+    public String[] stringToCodePointArray() {
+        return SimpleString.stringToCodePointArray(value);
+    }
+
+    @Benchmark
+    public int[] stringToCodePoints() {
+        return SimpleString.stringToCodePoints(value);
+    }
+
+    @Benchmark
+    public void charIterator(final Blackhole blackhole) {
+        consume(SimpleString.charIterator(value), blackhole);
+    }
+
+    @Benchmark
+    public String collapseWhitespace() {
+        return SimpleString.collapseWhitespace(value);
+    }
+
+    @Benchmark
+    public boolean contains(final Case flag) {
+        return SimpleString.contains(value, needle, flag.caseSensitive);
+    }
+
+    @Benchmark
+    public boolean containsAll(final Case flag) {
+        return SimpleString.containsAll(value, PARTS, flag.caseSensitive);
+    }
+
+    @Benchmark
+    public boolean containsAny(final Case flag) {
+        return SimpleString.containsAny(value, PARTS, flag.caseSensitive);
+    }
+
+    @Benchmark
+    public long countSubstr(final Case flag) {
+        return SimpleString.countSubstr(value, "o", flag.caseSensitive);
+    }
+
+    @Benchmark
+    public boolean endsWith(final Case flag) {
+        return SimpleString.endsWith(value, suffix, flag.caseSensitive);
+    }
+
+    @Benchmark
+    public String ensureLeft(final Case flag) {
+        return SimpleString.ensureLeft(value, "musenboy", flag.caseSensitive);
+    }
+
+    @Benchmark
+    public String ensureRight(final Case flag) {
+        return SimpleString.ensureRight(value, "MUSENBOY", flag.caseSensitive);
+    }
+
+    @Benchmark
+    public String firstChars() {
+        return SimpleString.firstChars(value, middle);
+    }
+
+    @Benchmark
+    public StringView firstCharsView() {
+        return SimpleString.firstCharsView(value, middle);
+    }
+
+    @Benchmark
+    public String headChar() {
+        return SimpleString.headChar(value);
+    }
+
+    @Benchmark
+    public int indexOf(final Case flag) {
+        return SimpleString.indexOf(value, needle, 0, flag.caseSensitive);
+    }
+
+    @Benchmark
+    public boolean unequal() {
+        return SimpleString.unequal(value, copy);
+    }
+
+    @Benchmark
+    public String insertStringAtIndex() {
+        return SimpleString.insertStringAtIndex(value, "musenboy", middle);
+    }
+
+    @Benchmark
+    public boolean isUpperCase() {
+        return SimpleString.isUpperCase(upper);
+    }
+
+    @Benchmark
+    public boolean isLowerCase() {
+        return SimpleString.isLowerCase(lower);
+    }
+
+    @Benchmark
+    public String lastChars() {
+        return SimpleString.lastChars(value, middle);
+    }
+
+    @Benchmark
+    public StringView lastCharsView() {
+        return SimpleString.lastCharsView(value, middle);
+    }
+
+    @Benchmark
+    public boolean isString() {
+        return SimpleString.isString(value);
+    }
+
+    @Benchmark
+    public int lastIndexOf(final Case flag) {
+        return SimpleString.lastIndexOf(value, prefix, flag.caseSensitive);
+    }
+
+    @Benchmark
+    public String leftTrim() {
+        return SimpleString.leftTrim(value);
+    }
+
+    @Benchmark
+    public String rightTrim() {
+        return SimpleString.rightTrim(value);
+    }
+
+    @Benchmark
+    public int stringLength() {
+        return SimpleString.stringLength(value);
+    }
+
+    @Benchmark
+    public String prepend() {
+        return SimpleString.prepend(value, "mu", "sen", "boy");
+    }
+
+    @Benchmark
+    public String prependArray() {
+        return SimpleString.prependArray(value, PARTS);
+    }
+
+    @Benchmark
+    public StringBuilder prependTo() {
+        return SimpleString.prependTo(new StringBuilder(), value, "mu", "sen", "boy");
+    }
+
+    @Benchmark
+    public String removeLeft(final Case flag) {
+        return SimpleString.removeLeft(value, prefix, flag.caseSensitive);
+    }
+
+    @Benchmark
+    public String removeNonWords() {
+        return SimpleString.removeNonWords(value);
+    }
+
+    @Benchmark
+    public String removeRight(final Case flag) {
+        return SimpleString.removeRight(value, suffix, flag.caseSensitive);
+    }
+
+    @Benchmark
+    public String removeSpaces() {
+        return SimpleString.removeSpaces(value);
+    }
+
+    @Benchmark
+    public String replaceString(final Case flag) {
+        return SimpleString.replaceString(value, "o", "0", flag.caseSensitive);
+    }
+
+    @Benchmark
+    public String replaceEach(final Case flag) {
+        return SimpleString.replaceEach(value, flag.caseSensitive ? caseSensitiveReplacer : replacer);
+    }
+
+    @Benchmark
+    public String reverse() {
+        return SimpleString.reverse(value);
+    }
+
+    @Benchmark
+    public String safeTruncate() {
+        return SimpleString.safeTruncate(value, middle, "...");
+    }
+
+    @Benchmark
+    public String[] split() {
+        return SimpleString.split(value, " ");
+    }
+
+    @Benchmark
+    public void splitIterator(final Blackhole blackhole) {
+        consume(SimpleString.splitIterator(value, ' ', 0), blackhole);
+    }
+
+    @Benchmark
+    public String[] words() {
+        return SimpleString.words(value);
+    }
+
+    @Benchmark
+    public void wordIterator(final Blackhole blackhole) {
+        consume(SimpleString.wordIterator(value), blackhole);
+    }
+
+    @Benchmark
+    public String truncate() {
+        return SimpleString.truncate(value, middle, "...");
+    }
+
+    @Benchmark
+    public String slice() {
+        return SimpleString.slice(value, 1, value.length() - 1);
+    }
+
+    @Benchmark
+    public StringView sliceView() {
+        return SimpleString.sliceView(value, 1, value.length() - 1);
+    }
+
+    @Benchmark
+    public String tail() {
+        return SimpleString.tail(value);
+    }
+
+    @Benchmark
+    public StringView tailView() {
+        return SimpleString.tailView(value);
+    }
+
+    private static void consume(final Iterator<?> iterator, final Blackhole blackhole) {
+        while(iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
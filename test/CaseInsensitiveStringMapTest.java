@@ -0,0 +1,125 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * CaseInsensitiveStringMap against a HashMap keyed by case folded keys, on few short keys so that
+ * clusters are long and often wrap around the end of the table, and its sizing.
+ */
+
+public class CaseInsensitiveStringMapTest {
+
+    private static final char[] ALPHABET = {'a', 'A', 'b', 'B', 'é', 'É', 'k', 'K'};
+
+    @Test
+    public void matchesHashMap() {
+        Random random = new Random(22);
+        for(int round = 0; round < 2000; round++) {
+            CaseInsensitiveStringMap<Integer> map = new CaseInsensitiveStringMap<Integer>(random.nextInt(8));
+            // folded key to the key as first put, and to its value
+            Map<String, String> storedKeys = new HashMap<String, String>();
+            Map<String, Integer> expected = new HashMap<String, Integer>();
+            for(int step = 0; step < 200; step++) {
+                String key = randomKey(random);
+                String folded = fold(key);
+                switch(random.nextInt(5)) {
+                    case 0:
+                    case 1:
+                        Integer value = random.nextInt(100);
+                        assertEquals(key, expected.put(folded, value), map.put(key, value));
+                        if(!storedKeys.containsKey(folded)) {
+                            storedKeys.put(folded, key);
+                        }
+                        break;
+                    case 2:
+                        assertEquals(key, expected.remove(folded), map.remove(key));
+                        storedKeys.remove(folded);
+                        break;
+                    case 3:
+                        removeWhileIterating(random, map, storedKeys, expected);
+                        break;
+                    default:
+                        assertEquals(key, expected.get(folded), map.get(new StringBuilder(key)));
+                        assertEquals(key, expected.containsKey(folded), map.containsKey(key));
+                        break;
+                }
+                assertEquals(expected.size(), map.size());
+                for(Map.Entry<String, String> stored : storedKeys.entrySet()) {
+                    assertEquals(stored.getValue(), map.storedKey(stored.getKey().toUpperCase()));
+                    assertEquals(expected.get(stored.getKey()), map.get(stored.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the whole map, removing about half of the entries through the iterator, and checks that
+     * every entry is returned exactly once.
+     */
+    private static void removeWhileIterating(final Random random, final CaseInsensitiveStringMap<Integer> map,
+                                             final Map<String, String> storedKeys, final Map<String, Integer> expected) {
+        Set<String> before = new HashSet<String>(storedKeys.keySet());
+        Set<String> returned = new HashSet<String>();
+        for(Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, Integer> entry = iterator.next();
+            String folded = fold(entry.getKey());
+            assertTrue(entry.getKey(), returned.add(folded));
+            assertEquals(storedKeys.get(folded), entry.getKey());
+            assertEquals(expected.get(folded), entry.getValue());
+            if(random.nextBoolean()) {
+                iterator.remove();
+                storedKeys.remove(folded);
+                expected.remove(folded);
+            }
+        }
+        assertEquals(before, returned);
+    }
+
+    private static String randomKey(final Random random) {
+        char[] chars = new char[random.nextInt(3)];
+        for(int i = 0; i < chars.length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+
+    private static String fold(final String key) {
+        char[] chars = key.toCharArray();
+        for(int i = 0; i < chars.length; i++) {
+            chars[i] = SimpleString.foldCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeExpectedSizeIsRejected() {
+        new CaseInsensitiveStringMap<String>(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void expectedSizeBeyondLargestTableIsRejected() {
+        new CaseInsensitiveStringMap<String>((1 << 30) / 4 * 3 + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class, timeout = 10000)
+    public void largestExpectedSizeIsRejectedWithoutLooping() {
+        new CaseInsensitiveStringMap<String>(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void zeroExpectedSizeGrows() {
+        CaseInsensitiveStringMap<String> map = new CaseInsensitiveStringMap<String>(0);
+        for(int i = 0; i < 100; i++) {
+            map.put("Key" + i, "value" + i);
+        }
+        assertEquals(100, map.size());
+        assertEquals("value42", map.get("KEY42"));
+    }
+}
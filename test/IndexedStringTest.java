@@ -0,0 +1,97 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * IndexedString against String.indexOf and lastIndexOf and SimpleString, on texts over small
+ * alphabets with long repeats, where sorting suffixes by prefix doubling takes the most rounds.
+ */
+
+public class IndexedStringTest {
+
+    private static final char[] ALPHABET = {'a', 'b', 'A', 'B', 'é', 'É'};
+
+    @Test
+    public void matchesString() {
+        Random random = new Random(23);
+        for(int round = 0; round < 3000; round++) {
+            String text = text(random, random.nextInt(60));
+            for(boolean caseSensitive : new boolean[]{true, false}) {
+                IndexedString index = IndexedString.build(text, caseSensitive);
+                for(int query = 0; query < 20; query++) {
+                    String needle = needle(random, text);
+                    int from = random.nextInt(text.length() + 3) - 1;
+                    String message = text + " / " + needle + " / " + from + " / " + caseSensitive;
+                    if(caseSensitive) {
+                        assertEquals(message, text.contains(needle), index.contains(needle));
+                        assertEquals(message, text.indexOf(needle), index.indexOf(needle));
+                        assertEquals(message, text.indexOf(needle, from), index.indexOf(needle, from));
+                        assertEquals(message, text.lastIndexOf(needle), index.lastIndexOf(needle));
+                        assertEquals(message, text.lastIndexOf(needle, from), index.lastIndexOf(needle, from));
+                    } else if(!text.isEmpty()) {
+                        assertEquals(message, SimpleString.contains(text, needle, false), index.contains(needle));
+                        assertEquals(message, SimpleString.indexOf(text, needle, Math.max(from, 0), false),
+                                index.indexOf(needle, from));
+                        assertEquals(message, SimpleString.lastIndexOf(text, needle, false), index.lastIndexOf(needle));
+                        assertEquals(message, SimpleString.lastIndexOf(text, needle, from, false), index.lastIndexOf(needle, from));
+                    }
+                    if(!needle.isEmpty() && !text.isEmpty()) {
+                        for(boolean overlapping : new boolean[]{true, false}) {
+                            assertEquals(message, SimpleString.countSubstr(text, needle, caseSensitive, overlapping),
+                                    index.countSubstr(needle, overlapping));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void longRepeats() {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < 100000; i++) {
+            builder.append('a');
+        }
+        builder.append('b');
+        for(int i = 0; i < 2000; i++) {
+            builder.append("abaab");
+        }
+        String text = builder.toString();
+        IndexedString index = IndexedString.build(text);
+        String[] needles = {"a", "aaaa", "aab", "abaababaab", "ba", "bb", "b"};
+        for(String needle : needles) {
+            assertEquals(needle, text.indexOf(needle), index.indexOf(needle));
+            assertEquals(needle, text.lastIndexOf(needle), index.lastIndexOf(needle));
+            assertEquals(needle, text.indexOf(needle, 100001), index.indexOf(needle, 100001));
+            assertEquals(needle, SimpleString.countSubstr(text, needle, true, true), index.countSubstr(needle, true));
+            assertEquals(needle, SimpleString.countSubstr(text, needle, true, false), index.countSubstr(needle, false));
+        }
+    }
+
+    /**
+     * Random text, often a short word repeated with a few changes.
+     */
+    private static String text(final Random random, final int length) {
+        char[] chars = new char[length];
+        int period = 1 + random.nextInt(4);
+        for(int i = 0; i < length; i++) {
+            boolean repeat = i >= period && random.nextInt(8) != 0;
+            chars[i] = repeat ? chars[i - period] : ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * A part of text, with its case changed now and then, or a few random characters.
+     */
+    private static String needle(final Random random, final String text) {
+        if(random.nextInt(4) == 0) {
+            return text(random, random.nextInt(4));
+        }
+        int begin = random.nextInt(text.length() + 1);
+        int end = begin + random.nextInt(Math.min(text.length() - begin, 8) + 1);
+        String needle = text.substring(begin, end);
+        return random.nextBoolean() ? needle.toUpperCase() : needle;
+    }
+}
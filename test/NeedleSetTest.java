@@ -0,0 +1,80 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * NeedleSet against searching for each needle with SimpleString, on ASCII and other characters, and
+ * on a dictionary of CJK needles far larger than a dense transition table would fit in the heap the
+ * tests run with.
+ */
+
+public class NeedleSetTest {
+
+    // ASCII, Latin-1 and other characters with case variants, the Kelvin sign folding to k, and CJK
+    private static final char[] ALPHABET = {'a', 'b', 'A', 'B', 'k', 'K', 'K', 'é', 'É', 'ß', '一', '丁'};
+
+    @Test
+    public void matchesSimpleString() {
+        Random random = new Random(2);
+        for(int round = 0; round < 20000; round++) {
+            String[] needles = new String[1 + random.nextInt(5)];
+            for(int n = 0; n < needles.length; n++) {
+                needles[n] = random(random, random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(4));
+            }
+            String value = random(random, random.nextInt(20));
+            for(boolean caseSensitive : new boolean[]{true, false}) {
+                NeedleSet set = NeedleSet.compile(needles, caseSensitive);
+                String message = value + " / " + Arrays.toString(needles) + " / " + caseSensitive;
+                List<String> expected = new ArrayList<String>();
+                String first = null;
+                int firstStart = Integer.MAX_VALUE;
+                for(String needle : needles) {
+                    int start = value.isEmpty() ? (needle.isEmpty() ? 0 : -1) : SimpleString.indexOf(value, needle, 0, caseSensitive);
+                    if(start >= 0) {
+                        expected.add(needle);
+                        if(start < firstStart || (start == firstStart && needle.length() > first.length())) {
+                            first = needle;
+                            firstStart = start;
+                        }
+                    }
+                }
+                assertArrayEquals(message, expected.toArray(new String[0]), set.matches(value));
+                assertEquals(message, !expected.isEmpty(), set.containsAny(value));
+                assertEquals(message, expected.size() == needles.length, set.containsAll(value));
+                assertEquals(message, first, set.firstMatch(value));
+            }
+        }
+    }
+
+    @Test
+    public void largeCjkDictionary() {
+        Random random = new Random(22);
+        String[] needles = new String[20000];
+        for(int n = 0; n < needles.length; n++) {
+            char[] chars = new char[12];
+            for(int i = 0; i < chars.length; i++) {
+                chars[i] = (char) (0x4e00 + random.nextInt(20000));
+            }
+            needles[n] = new String(chars);
+        }
+        NeedleSet set = NeedleSet.compile(needles, false);
+        assertTrue(set.containsAny("前" + needles[12345] + "後"));
+        assertEquals(needles[777], set.firstMatch("ab" + needles[777] + needles[3]));
+        assertFalse(set.containsAny(needles[1].substring(1) + needles[2].substring(0, 11)));
+    }
+
+    private static String random(final Random random, final int length) {
+        char[] chars = new char[length];
+        for(int i = 0; i < length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+}
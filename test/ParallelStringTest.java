@@ -0,0 +1,64 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * ParallelString against SimpleString on values long enough to be cut into chunks, with occurrences
+ * that cross the chunk boundaries and chains of overlapping occurrences that decide which ones a
+ * count without overlapping takes.
+ */
+
+public class ParallelStringTest {
+
+    private static final String[] NEEDLES = {"a", "aa", "aaa", "ab", "aba", "abab", "BAA", "bAbA", "c"};
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(Runtime.getRuntime().availableProcessors() > 1);
+    }
+
+    @Test
+    public void matchesSimpleString() {
+        Random random = new Random(20);
+        for(int round = 0; round < 6; round++) {
+            String value = value(random, ParallelString.TEXT_THRESHOLD + random.nextInt(2 * ParallelString.TEXT_THRESHOLD));
+            for(String needle : NEEDLES) {
+                for(boolean caseSensitive : new boolean[]{true, false}) {
+                    String message = round + " / " + needle + " / " + caseSensitive;
+                    for(boolean overlapping : new boolean[]{true, false}) {
+                        assertEquals(message, SimpleString.countSubstr(value, needle, caseSensitive, overlapping),
+                                ParallelString.countSubstr(value, needle, caseSensitive, overlapping));
+                    }
+                    assertEquals(message, SimpleString.contains(value, needle, caseSensitive),
+                            ParallelString.contains(value, needle, caseSensitive));
+                    int offset = random.nextInt(value.length() - ParallelString.TEXT_THRESHOLD + 1);
+                    assertEquals(message, SimpleString.indexOf(value, needle, offset, caseSensitive),
+                            ParallelString.indexOf(value, needle, offset, caseSensitive));
+                }
+            }
+        }
+    }
+
+    /**
+     * Long runs of a, of ab and of random a and b, so that occurrences of every needle cross chunk
+     * boundaries at every phase. c occurs only now and then, near the end.
+     */
+    private static String value(final Random random, final int length) {
+        StringBuilder builder = new StringBuilder(length);
+        while(builder.length() < length) {
+            int run = 1 + random.nextInt(random.nextBoolean() ? 600000 : 50);
+            int kind = random.nextInt(3);
+            for(int i = 0; i < run && builder.length() < length; i++) {
+                char c = kind == 0 ? 'a' : kind == 1 ? (i % 2 == 0 ? 'a' : 'b') : (random.nextBoolean() ? 'a' : 'b');
+                builder.append(random.nextInt(20) == 0 ? Character.toUpperCase(c) : c);
+            }
+        }
+        if(random.nextBoolean()) {
+            builder.setCharAt(length - 1 - random.nextInt(1000), 'c');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,113 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Rope against a StringBuilder under random edits, with texts longer than a leaf so that joins,
+ * splits and rebalancing meet reversed subtrees, and a long run of edits at both ends that only stays
+ * fast while the tree stays balanced.
+ */
+
+public class RopeTest {
+
+    @Test
+    public void matchesStringBuilder() {
+        Random random = new Random(19);
+        for(int round = 0; round < 200; round++) {
+            Rope rope = Rope.of("");
+            StringBuilder expected = new StringBuilder();
+            for(int step = 0; step < 100; step++) {
+                String text = random(random, random.nextInt(4) == 0 ? random.nextInt(1500) : random.nextInt(20));
+                switch(random.nextInt(7)) {
+                    case 0:
+                        rope = rope.appendString(text, "x");
+                        expected.append(text).append('x');
+                        break;
+                    case 1:
+                        rope = rope.append(Rope.of(text).reverse());
+                        expected.append(new StringBuilder(text).reverse());
+                        break;
+                    case 2:
+                        rope = rope.prepend("y", text);
+                        expected.insert(0, text).insert(0, 'y');
+                        break;
+                    case 3:
+                        int index = random.nextInt(expected.length() + 2);
+                        rope = rope.insertStringAtIndex(text, index);
+                        if(index <= expected.length()) {
+                            expected.insert(index, text);
+                        }
+                        break;
+                    case 4:
+                        int begin = random.nextInt(expected.length() + 1);
+                        int end = begin + random.nextInt(expected.length() - begin + 1);
+                        if(random.nextBoolean()) {
+                            rope = rope.slice(begin, end);
+                        } else {
+                            rope = rope.subSequence(begin, end);
+                        }
+                        expected = new StringBuilder(expected.substring(begin, end));
+                        break;
+                    default:
+                        rope = rope.reverse();
+                        expected.reverse();
+                        break;
+                }
+                assertRope(random, expected.toString(), rope);
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void editsAtTheEndsStayBalanced() {
+        // without rebalancing, edits at the ends make the tree a list, too deep to walk
+        Random random = new Random(190);
+        Rope rope = Rope.of("");
+        ArrayDeque<String> expected = new ArrayDeque<String>();
+        String text = random(random, 600);
+        for(int step = 0; step < 30000; step++) {
+            if(random.nextInt(4) == 0) {
+                rope = rope.prepend(text);
+                expected.addFirst(text);
+            } else {
+                rope = rope.appendString(text);
+                expected.addLast(text);
+            }
+        }
+        StringBuilder builder = new StringBuilder(rope.length());
+        for(String part : expected) {
+            builder.append(part);
+        }
+        String value = builder.toString();
+        assertEquals(value, rope.toString());
+        for(int i = 0; i < 100000; i++) {
+            int index = random.nextInt(value.length());
+            assertEquals(value.charAt(index), rope.charAt(index));
+        }
+    }
+
+    private static void assertRope(final Random random, final String expected, final Rope rope) {
+        assertEquals(expected.length(), rope.length());
+        assertEquals(expected.isEmpty(), rope.isEmpty());
+        assertEquals(expected, rope.toString());
+        assertEquals(expected, rope.appendTo(new StringBuilder()).toString());
+        for(int i = 0; i < 10 && !expected.isEmpty(); i++) {
+            int index = random.nextInt(expected.length());
+            assertEquals(expected.charAt(index), rope.charAt(index));
+            assertEquals(String.valueOf(expected.charAt(index)), rope.charAtIndex(index - expected.length()));
+        }
+    }
+
+    /**
+     * Random text of BMP characters, which reverse like a StringBuilder does.
+     */
+    private static String random(final Random random, final int length) {
+        char[] chars = new char[length];
+        for(int i = 0; i < length; i++) {
+            chars[i] = (char) (random.nextBoolean() ? 'a' + random.nextInt(26) : 0x3b1 + random.nextInt(20));
+        }
+        return new String(chars);
+    }
+}
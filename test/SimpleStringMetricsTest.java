@@ -0,0 +1,271 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Allocation budgets of every public SimpleString method. Every method is warmed up, then run once
+ * more on fixed inputs and checked against its budget: 0 where Latin-1 input needs no allocation,
+ * twice the bytes it allocates where the method must allocate its result, since escape analysis
+ * doesn't remove the same temporaries on every run. The sizes are those of a 64 bit HotSpot with
+ * compact strings and compressed oops, which the surefire heap size gives.
+ */
+
+public class SimpleStringMetricsTest {
+
+    private static final int WARMUP = 20000;
+
+    private static final String VALUE = "Grüße aus Köln, musenboy";
+    private static final String COPY = new String(VALUE.toCharArray());
+    private static final String UPPER = "GRÜSSE AUS KÖLN, MUSENBOY";
+    private static final String LOWER = "grüße aus köln, musenboy";
+    private static final String SPACED = "  Grüße \t aus\n Köln  ";
+    private static final String[] NEEDLES = {"GRÜSSE", "köln", "BOY"};
+    private static final String[] PARTS = {"a", "b"};
+    private static final PreparedNeedle PREPARED = PreparedNeedle.compile("KÖLN", false);
+    private static final NeedleSet NEEDLE_SET = NeedleSet.compile(NEEDLES, false);
+    private static final Replacer REPLACER = Replacer.compile(Collections.singletonMap("köln", "Bonn"), false);
+    private static final Map<String, String> REPLACEMENTS = Collections.singletonMap("köln", "Bonn");
+
+    private static final Map<String, Long> BUDGETS = new TreeMap<String, Long>();
+
+    // written by every call so that no result can be optimized away
+    private static Object sink;
+
+    static {
+        BUDGETS.put("appendArray", 288L);
+        BUDGETS.put("appendString", 288L);
+        BUDGETS.put("appendTo", 0L);
+        BUDGETS.put("charAtIndex", 0L);
+        BUDGETS.put("charIterator", 48L);
+        BUDGETS.put("codePointAtIndex", 0L);
+        BUDGETS.put("collapseWhitespace", 368L);
+        BUDGETS.put("contains", 0L);
+        BUDGETS.put("containsAll", 48L);
+        BUDGETS.put("containsAny", 0L);
+        BUDGETS.put("countSubstr", 0L);
+        BUDGETS.put("endsWith", 0L);
+        BUDGETS.put("ensureLeft", 368L);
+        BUDGETS.put("ensureRight", 336L);
+        BUDGETS.put("firstChars", 96L);
+        BUDGETS.put("firstCharsView", 48L);
+        BUDGETS.put("headChar", 0L);
+        BUDGETS.put("indexOf", 0L);
+        BUDGETS.put("insertStringAtIndex", 288L);
+        BUDGETS.put("isLowerCase", 0L);
+        BUDGETS.put("isString", 0L);
+        BUDGETS.put("isUpperCase", 0L);
+        BUDGETS.put("lastChars", 96L);
+        BUDGETS.put("lastCharsView", 48L);
+        BUDGETS.put("lastIndexOf", 0L);
+        BUDGETS.put("leftTrim", 128L);
+        BUDGETS.put("prepend", 288L);
+        BUDGETS.put("prependArray", 288L);
+        BUDGETS.put("prependTo", 0L);
+        BUDGETS.put("removeLeft", 128L);
+        BUDGETS.put("removeNonWords", 208L);
+        BUDGETS.put("removeRight", 128L);
+        BUDGETS.put("removeSpaces", 192L);
+        BUDGETS.put("replaceEach", 2592L);
+        BUDGETS.put("replaceString", 256L);
+        BUDGETS.put("reverse", 288L);
+        BUDGETS.put("rightTrim", 128L);
+        BUDGETS.put("safeTruncate", 224L);
+        BUDGETS.put("slice", 96L);
+        BUDGETS.put("sliceView", 48L);
+        BUDGETS.put("split", 672L);
+        BUDGETS.put("splitIterator", 64L);
+        BUDGETS.put("stringLength", 0L);
+        BUDGETS.put("stringToArray", 224L);
+        BUDGETS.put("stringToCodePointArray", 224L);
+        BUDGETS.put("stringToCodePoints", 224L);
+        BUDGETS.put("tail", 128L);
+        BUDGETS.put("tailView", 48L);
+        BUDGETS.put("truncate", 384L);
+        BUDGETS.put("unequal", 0L);
+        BUDGETS.put("wordIterator", 48L);
+        BUDGETS.put("words", 816L);
+    }
+
+    private final StringBuilder out = new StringBuilder(256);
+
+    @Before
+    public void setUp() {
+        SimpleStringMetrics.enable();
+        SimpleStringMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        for(String method : SimpleStringMetrics.budgets().keySet()) {
+            SimpleStringMetrics.setBudget(method, -1);
+        }
+        SimpleStringMetrics.disable();
+        SimpleStringMetrics.reset();
+    }
+
+    @Test
+    public void noBudgetByDefault() {
+        assertEquals(Collections.<String, Long>emptyMap(), SimpleStringMetrics.budgets());
+    }
+
+    @Test
+    public void everyMethodStaysWithinBudget() throws IOException {
+        assumeAllocationCounter();
+        for(Map.Entry<String, Long> budget : BUDGETS.entrySet()) {
+            SimpleStringMetrics.setBudget(budget.getKey(), budget.getValue());
+        }
+        for(int i = 0; i < WARMUP; i++) {
+            runAll();
+        }
+        SimpleStringMetrics.reset();
+        runAll();
+        Map<String, Long> maxAllocated = SimpleStringMetrics.maxAllocatedBytes();
+        assertEquals(BUDGETS.keySet(), maxAllocated.keySet());
+        for(Map.Entry<String, Long> budget : BUDGETS.entrySet()) {
+            long max = maxAllocated.get(budget.getKey());
+            assertTrue(budget.getKey() + " allocated " + max + " bytes", max <= budget.getValue());
+        }
+        assertEquals(Collections.<String, Long>emptyMap(), SimpleStringMetrics.budgetViolations());
+    }
+
+    @Test
+    public void violationIsReported() {
+        assumeAllocationCounter();
+        SimpleStringMetrics.setBudget("reverse", 0);
+        sink = SimpleString.reverse(VALUE);
+        long max = SimpleStringMetrics.maxAllocatedBytes().get("reverse");
+        assertTrue(max > 0);
+        assertEquals(Collections.singletonMap("reverse", max), SimpleStringMetrics.budgetViolations());
+    }
+
+    private static void assumeAllocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled());
+    }
+
+    /**
+     * Every public method, each overload once.
+     */
+    private void runAll() throws IOException {
+        sink = SimpleString.appendString(VALUE, PARTS);
+        sink = SimpleString.appendArray(VALUE, PARTS);
+        out.setLength(0);
+        sink = SimpleString.appendTo(out, VALUE, PARTS);
+        sink = SimpleString.charAtIndex(VALUE, -1);
+        sink = SimpleString.codePointAtIndex(VALUE, 3);
+        sink = SimpleString.stringToArray(VALUE);
+        sink = SimpleString.stringToCodePointArray(VALUE);
+        sink = SimpleString.stringToCodePoints(VALUE);
+        sink = SimpleString.charIterator(VALUE);
+        sink = SimpleString.collapseWhitespace(SPACED);
+        out.setLength(0);
+        sink = SimpleString.collapseWhitespace(SPACED, out);
+        sink = SimpleString.contains(VALUE, "Köln");
+        sink = SimpleString.contains(VALUE, "KÖLN", false);
+        sink = SimpleString.contains((CharSequence) VALUE, (CharSequence) "Köln");
+        sink = SimpleString.contains((CharSequence) VALUE, (CharSequence) "KÖLN", false);
+        sink = SimpleString.contains(VALUE, PREPARED);
+        sink = SimpleString.containsAll(VALUE, NEEDLES);
+        sink = SimpleString.containsAll(VALUE, NEEDLES, false);
+        sink = SimpleString.containsAll(VALUE, NEEDLE_SET);
+        sink = SimpleString.containsAny(VALUE, NEEDLES);
+        sink = SimpleString.containsAny(VALUE, NEEDLES, false);
+        sink = SimpleString.containsAny(VALUE, NEEDLE_SET);
+        sink = SimpleString.countSubstr(VALUE, "s");
+        sink = SimpleString.countSubstr(VALUE, "S", false);
+        sink = SimpleString.countSubstr(VALUE, "S", false, true);
+        sink = SimpleString.countSubstr(VALUE, PREPARED, false);
+        sink = SimpleString.endsWith(VALUE, "boy");
+        sink = SimpleString.endsWith(VALUE, "BOY", false);
+        sink = SimpleString.endsWith(VALUE, "KÖLN", 14, false);
+        sink = SimpleString.endsWith((CharSequence) VALUE, (CharSequence) "BOY", false);
+        sink = SimpleString.ensureLeft(VALUE, "Grüße");
+        sink = SimpleString.ensureLeft(VALUE, "Hallo ", false);
+        out.setLength(0);
+        sink = SimpleString.ensureLeft(VALUE, "Hallo ", false, out);
+        sink = SimpleString.ensureRight(VALUE, "boy");
+        sink = SimpleString.ensureRight(VALUE, "!", false);
+        out.setLength(0);
+        sink = SimpleString.ensureRight(VALUE, "!", false, out);
+        sink = SimpleString.firstChars(VALUE, 5);
+        sink = SimpleString.firstCharsView(VALUE, 5);
+        sink = SimpleString.headChar(VALUE);
+        sink = SimpleString.indexOf(VALUE, "KÖLN", 0, false);
+        sink = SimpleString.indexOf((CharSequence) VALUE, (CharSequence) "KÖLN", 0, false);
+        sink = SimpleString.indexOf(VALUE, PREPARED, 0);
+        sink = SimpleString.unequal(VALUE, COPY);
+        sink = SimpleString.insertStringAtIndex(VALUE, "liebe ", 6);
+        sink = SimpleString.isUpperCase(UPPER);
+        sink = SimpleString.isUpperCase((CharSequence) UPPER);
+        sink = SimpleString.isLowerCase(LOWER);
+        sink = SimpleString.isLowerCase((CharSequence) LOWER);
+        sink = SimpleString.lastChars(VALUE, 3);
+        sink = SimpleString.lastCharsView(VALUE, 3);
+        sink = SimpleString.isString(VALUE);
+        sink = SimpleString.lastIndexOf(VALUE, "s");
+        sink = SimpleString.lastIndexOf(VALUE, "S", false);
+        sink = SimpleString.lastIndexOf(VALUE, "S", VALUE.length(), false);
+        sink = SimpleString.lastIndexOf((CharSequence) VALUE, (CharSequence) "S", VALUE.length(), false);
+        sink = SimpleString.lastIndexOf(VALUE, PREPARED, VALUE.length());
+        sink = SimpleString.leftTrim(SPACED);
+        sink = SimpleString.rightTrim(SPACED);
+        sink = SimpleString.stringLength(VALUE);
+        sink = SimpleString.prepend(VALUE, PARTS);
+        sink = SimpleString.prependArray(VALUE, PARTS);
+        out.setLength(0);
+        sink = SimpleString.prependTo(out, VALUE, PARTS);
+        sink = SimpleString.removeLeft(VALUE, "Grüße ");
+        sink = SimpleString.removeLeft(VALUE, "GRÜSSE", false);
+        out.setLength(0);
+        sink = SimpleString.removeLeft(VALUE, "GRÜSSE", false, out);
+        sink = SimpleString.removeNonWords(VALUE);
+        sink = SimpleString.removeRight(VALUE, "boy");
+        sink = SimpleString.removeRight(VALUE, "BOY", false);
+        out.setLength(0);
+        sink = SimpleString.removeRight(VALUE, "BOY", false, out);
+        sink = SimpleString.removeSpaces(SPACED);
+        sink = SimpleString.replaceString(VALUE, "KÖLN", "Bonn", false);
+        out.setLength(0);
+        sink = SimpleString.replaceString(VALUE, "KÖLN", "Bonn", false, out);
+        sink = SimpleString.replaceEach(VALUE, REPLACER);
+        sink = SimpleString.replaceEach(VALUE, REPLACEMENTS, false);
+        sink = SimpleString.reverse(VALUE);
+        out.setLength(0);
+        sink = SimpleString.reverse(VALUE, out);
+        sink = SimpleString.safeTruncate(VALUE, 12, "...");
+        out.setLength(0);
+        sink = SimpleString.safeTruncate(VALUE, 12, "...", out);
+        sink = SimpleString.split(VALUE, " ");
+        sink = drain(SimpleString.splitIterator(VALUE, ' ', -1));
+        sink = drain(SimpleString.splitIterator(VALUE, ", ", -1));
+        sink = SimpleString.words(VALUE);
+        sink = drain(SimpleString.wordIterator(VALUE));
+        sink = SimpleString.truncate(VALUE, 12, "...");
+        out.setLength(0);
+        sink = SimpleString.truncate(VALUE, 12, "...", out);
+        sink = SimpleString.slice(VALUE, 6, 9);
+        sink = SimpleString.sliceView(VALUE, 6, 9);
+        sink = SimpleString.tail(VALUE);
+        sink = SimpleString.tailView(VALUE);
+    }
+
+    private static Object drain(final Iterator<?> iterator) {
+        Object last = null;
+        while(iterator.hasNext()) {
+            last = iterator.next();
+        }
+        return last;
+    }
+}
@@ -0,0 +1,155 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * StreamingString.collapseWhitespace against SimpleString.collapseWhitespace, and on runs of control
+ * characters far larger than the heap the tests run with.
+ */
+
+public class StreamingStringTest {
+
+    private static final long LONG_RUN = 200000000L;
+
+    @Test
+    public void collapseWhitespaceMatchesSimpleString() throws IOException {
+        Random random = new Random(8);
+        char[] alphabet = {'a', 'b', ' ', '\t', '\n', '\0', '\u0001', '\u001f'};
+        for(int round = 0; round < 20000; round++) {
+            char[] value = new char[random.nextInt(40)];
+            for(int i = 0; i < value.length; i++) {
+                value[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String input = new String(value);
+            StringWriter out = new StringWriter();
+            StreamingString.collapseWhitespace(new StringReader(input), out);
+            assertEquals(input, SimpleString.collapseWhitespace(input), out.toString());
+        }
+    }
+
+    @Test
+    public void longNulRunIsHeldInBoundedMemory() throws IOException {
+        // "x", LONG_RUN NULs, "y" is written unchanged
+        CheckingWriter out = new CheckingWriter(LONG_RUN + 2) {
+            @Override
+            char expected(final long index) {
+                return index == 0 ? 'x' : index == LONG_RUN + 1 ? 'y' : '\0';
+            }
+        };
+        StreamingString.collapseWhitespace(new GeneratedReader(LONG_RUN + 2) {
+            @Override
+            char charAt(final long index) {
+                return index == 0 ? 'x' : index == LONG_RUN + 1 ? 'y' : '\0';
+            }
+        }, out);
+        out.assertComplete();
+    }
+
+    @Test
+    public void trailingNulRunIsDropped() throws IOException {
+        CheckingWriter out = new CheckingWriter(1L) {
+            @Override
+            char expected(final long index) {
+                return 'x';
+            }
+        };
+        StreamingString.collapseWhitespace(new GeneratedReader(LONG_RUN + 1) {
+            @Override
+            char charAt(final long index) {
+                return index == 0 ? 'x' : '\0';
+            }
+        }, out);
+        out.assertComplete();
+    }
+
+    @Test
+    public void alternatingControlRunIsSpilled() throws IOException {
+        // every character starts a new run, so the held run outgrows memory and is spilled
+        final long length = 3000002L;
+        CheckingWriter out = new CheckingWriter(length) {
+            @Override
+            char expected(final long index) {
+                return alternating(index, length);
+            }
+        };
+        StreamingString.collapseWhitespace(new GeneratedReader(length) {
+            @Override
+            char charAt(final long index) {
+                return alternating(index, length);
+            }
+        }, out);
+        out.assertComplete();
+    }
+
+    private static char alternating(final long index, final long length) {
+        return index == 0 ? 'x' : index == length - 1 ? 'y' : (char) (index & 1);
+    }
+
+    private abstract static class GeneratedReader extends Reader {
+
+        private final long length;
+        private long position;
+
+        GeneratedReader(final long length) {
+            this.length = length;
+        }
+
+        abstract char charAt(long index);
+
+        @Override
+        public int read(final char[] buffer, final int offset, final int count) {
+            if(position == length) {
+                return -1;
+            }
+            int n = (int) Math.min(count, length - position);
+            for(int i = 0; i < n; i++) {
+                buffer[offset + i] = charAt(position++);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private abstract static class CheckingWriter extends Writer {
+
+        private final long length;
+        private long written;
+
+        CheckingWriter(final long length) {
+            this.length = length;
+        }
+
+        abstract char expected(long index);
+
+        @Override
+        public void write(final char[] buffer, final int offset, final int count) {
+            for(int i = 0; i < count; i++) {
+                if(written >= length || buffer[offset + i] != expected(written)) {
+                    throw new AssertionError("unexpected character " + (int) buffer[offset + i] + " at " + written);
+                }
+                written++;
+            }
+        }
+
+        void assertComplete() {
+            assertEquals(length, written);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
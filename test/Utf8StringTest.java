@@ -0,0 +1,88 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Utf8String against SimpleString on the String that new String(bytes, "UTF-8") decodes, for well
+ * formed and malformed input.
+ */
+
+public class Utf8StringTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // ASCII, lead bytes of every length, continuation bytes at the edges of their ranges, and bytes that never occur
+    private static final int[] BYTES = {'a', 'b', 'A', 'B', ' ', 0xC3, 0xA9, 0x89, 0xC2, 0x80, 0xBF, 0xE2, 0x82, 0xAC,
+        0xE0, 0xA0, 0xED, 0x9F, 0xF0, 0x90, 0x9F, 0x98, 0xF4, 0x8F, 0xC0, 0xF5, 0xFF};
+
+    @Test
+    public void malformedSequenceIsOneReplacement() {
+        byte[] value = {'a', (byte) 0xE2, (byte) 0x82, 'b'};
+        assertEquals("a�b", new String(value, UTF_8));
+        for(boolean caseSensitive : new boolean[]{true, false}) {
+            assertTrue(Utf8String.contains(value, "a�b", caseSensitive));
+            assertFalse(Utf8String.contains(value, "a��b", caseSensitive));
+            assertEquals(1L, Utf8String.countSubstr(value, "�", caseSensitive, true));
+            assertTrue(Utf8String.endsWith(value, "�b", caseSensitive));
+            assertTrue(Utf8String.endsWith(new byte[]{'a', (byte) 0xC3}, "a�", caseSensitive));
+        }
+    }
+
+    @Test
+    public void matchesSimpleStringOnDecodedInput() {
+        Random random = new Random(11);
+        for(int round = 0; round < 50000; round++) {
+            byte[] value = new byte[1 + random.nextInt(12)];
+            for(int i = 0; i < value.length; i++) {
+                value[i] = (byte) BYTES[random.nextInt(BYTES.length)];
+            }
+            String decoded = new String(value, UTF_8);
+            String needle = needle(random, decoded);
+            String message = hex(value) + " / " + needle;
+            for(boolean caseSensitive : new boolean[]{true, false}) {
+                assertEquals(message, SimpleString.contains(decoded, needle, caseSensitive),
+                        Utf8String.contains(value, needle, caseSensitive));
+                assertEquals(message, SimpleString.endsWith(decoded, needle, caseSensitive),
+                        Utf8String.endsWith(value, needle, caseSensitive));
+                if(!needle.isEmpty()) {
+                    for(boolean overlapping : new boolean[]{true, false}) {
+                        assertEquals(message, SimpleString.countSubstr(decoded, needle, caseSensitive, overlapping),
+                                Utf8String.countSubstr(value, needle, caseSensitive, overlapping));
+                    }
+                }
+            }
+            assertEquals(hex(value), SimpleString.isUpperCase(decoded), Utf8String.isUpperCase(value));
+            assertEquals(hex(value), SimpleString.isLowerCase(decoded), Utf8String.isLowerCase(value));
+        }
+    }
+
+    /**
+     * A part of decoded, with its case changed now and then, or a few random characters.
+     */
+    private static String needle(final Random random, final String decoded) {
+        if(random.nextInt(4) == 0) {
+            char[] chars = {'a', 'B', '�', 'é', 'É', '€'};
+            StringBuilder builder = new StringBuilder();
+            for(int i = random.nextInt(3); i >= 0; i--) {
+                builder.append(chars[random.nextInt(chars.length)]);
+            }
+            return builder.toString();
+        }
+        int begin = random.nextInt(decoded.length() + 1);
+        int end = begin + random.nextInt(decoded.length() - begin + 1);
+        String needle = decoded.substring(begin, end);
+        return random.nextBoolean() ? needle.toUpperCase() : needle;
+    }
+
+    private static String hex(final byte[] value) {
+        StringBuilder builder = new StringBuilder();
+        for(byte b : value) {
+            builder.append(String.format("%02X ", b & 0xFF));
+        }
+        return builder.toString();
+    }
+}